@@ -0,0 +1,112 @@
+package com.digitaltwin.backend.actiontype;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declaration of one action type as read from the action type file; see
+ * {@link CompiledActionType#compile} for what each rule means.
+ */
+public class ActionTypeDefinition {
+
+    private List<String> objectTypes;
+    private List<String> allowedChanges;
+    private List<String> requiredChanges;
+    private Map<String, PropertyRule> properties;
+    private List<Condition> preconditions;
+    private Map<String, Derivation> derived;
+
+    public List<String> getObjectTypes() { return objectTypes; }
+    public void setObjectTypes(List<String> objectTypes) { this.objectTypes = objectTypes; }
+
+    public List<String> getAllowedChanges() { return allowedChanges; }
+    public void setAllowedChanges(List<String> allowedChanges) { this.allowedChanges = allowedChanges; }
+
+    public List<String> getRequiredChanges() { return requiredChanges; }
+    public void setRequiredChanges(List<String> requiredChanges) { this.requiredChanges = requiredChanges; }
+
+    public Map<String, PropertyRule> getProperties() { return properties; }
+    public void setProperties(Map<String, PropertyRule> properties) { this.properties = properties; }
+
+    public List<Condition> getPreconditions() { return preconditions; }
+    public void setPreconditions(List<Condition> preconditions) { this.preconditions = preconditions; }
+
+    public Map<String, Derivation> getDerived() { return derived; }
+    public void setDerived(Map<String, Derivation> derived) { this.derived = derived; }
+
+    /**
+     * Constraint on a changed value: its JSON type ("string", "number", "integer" or
+     * "boolean"), numeric bounds, allowed values and a regular expression for strings.
+     */
+    public static class PropertyRule {
+        private String type;
+        private Double min;
+        private Double max;
+        private List<Object> values;
+        private String pattern;
+        private boolean nullable;
+
+        public String getType() { return type; }
+        public void setType(String type) { this.type = type; }
+
+        public Double getMin() { return min; }
+        public void setMin(Double min) { this.min = min; }
+
+        public Double getMax() { return max; }
+        public void setMax(Double max) { this.max = max; }
+
+        public List<Object> getValues() { return values; }
+        public void setValues(List<Object> values) { this.values = values; }
+
+        public String getPattern() { return pattern; }
+        public void setPattern(String pattern) { this.pattern = pattern; }
+
+        public boolean isNullable() { return nullable; }
+        public void setNullable(boolean nullable) { this.nullable = nullable; }
+    }
+
+    /**
+     * Requirement on a property of the object the action is applied to.
+     */
+    public static class Condition {
+        private String property;
+        private Object equalTo;
+        private Object notEqualTo;
+        private List<Object> in;
+        private Boolean present;
+
+        public String getProperty() { return property; }
+        public void setProperty(String property) { this.property = property; }
+
+        public Object getEqualTo() { return equalTo; }
+        public void setEqualTo(Object equalTo) { this.equalTo = equalTo; }
+
+        public Object getNotEqualTo() { return notEqualTo; }
+        public void setNotEqualTo(Object notEqualTo) { this.notEqualTo = notEqualTo; }
+
+        public List<Object> getIn() { return in; }
+        public void setIn(List<Object> in) { this.in = in; }
+
+        public Boolean getPresent() { return present; }
+        public void setPresent(Boolean present) { this.present = present; }
+    }
+
+    /**
+     * Extra change added to every action of the type: a constant {@code value}, a copy of
+     * another changed property, or the current time.
+     */
+    public static class Derivation {
+        private Object value;
+        private String copyOf;
+        private boolean now;
+
+        public Object getValue() { return value; }
+        public void setValue(Object value) { this.value = value; }
+
+        public String getCopyOf() { return copyOf; }
+        public void setCopyOf(String copyOf) { this.copyOf = copyOf; }
+
+        public boolean isNow() { return now; }
+        public void setNow(boolean now) { this.now = now; }
+    }
+}
@@ -0,0 +1,294 @@
+package com.digitaltwin.backend.actiontype;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * An action type's rules turned into plain check and transform chains once, at
+ * startup, so evaluating them per action is a few map lookups and comparisons.
+ * Immutable and thread-safe.
+ */
+public final class CompiledActionType {
+
+    /**
+     * Returns a description of what is wrong with {@code values}, or null if nothing is.
+     */
+    @FunctionalInterface
+    private interface Check {
+        String violation(Map<String, Object> values);
+    }
+
+    private final String name;
+    private final Set<String> objectTypes;
+    // Preconditions and object types can only be checked against an existing object
+    private final boolean requiresObject;
+    private final List<Check> changeChecks;
+    private final List<Check> stateChecks;
+    private final List<Consumer<Map<String, Object>>> derivations;
+
+    private CompiledActionType(String name, Set<String> objectTypes, List<Check> changeChecks,
+                               List<Check> stateChecks, List<Consumer<Map<String, Object>>> derivations) {
+        this.name = name;
+        this.objectTypes = objectTypes;
+        this.requiresObject = !objectTypes.isEmpty() || !stateChecks.isEmpty();
+        this.changeChecks = changeChecks;
+        this.stateChecks = stateChecks;
+        this.derivations = derivations;
+    }
+
+    /**
+     * Compiles a definition:
+     * <ul>
+     *   <li>{@code objectTypes}: object types the action may be applied to</li>
+     *   <li>{@code allowedChanges}: the only properties the action may change</li>
+     *   <li>{@code requiredChanges}: properties the action must change</li>
+     *   <li>{@code properties}: per-property value rules</li>
+     *   <li>{@code preconditions}: requirements on the object's current properties</li>
+     *   <li>{@code derived}: changes added to every action</li>
+     * </ul>
+     *
+     * @throws IllegalArgumentException if the definition is malformed
+     */
+    public static CompiledActionType compile(String name, ActionTypeDefinition definition) {
+        if (definition == null) {
+            throw new IllegalArgumentException("Definition is null");
+        }
+        List<Check> changeChecks = new ArrayList<>();
+        if (definition.getAllowedChanges() != null) {
+            Set<String> allowed = nameSet(definition.getAllowedChanges());
+            changeChecks.add(changes -> {
+                for (String key : changes.keySet()) {
+                    if (!allowed.contains(key)) {
+                        return "property '" + key + "' may not be changed";
+                    }
+                }
+                return null;
+            });
+        }
+        if (definition.getRequiredChanges() != null) {
+            for (String key : definition.getRequiredChanges()) {
+                changeChecks.add(changes -> changes.containsKey(key) ? null : "property '" + key + "' must be changed");
+            }
+        }
+        if (definition.getProperties() != null) {
+            definition.getProperties().forEach((key, rule) -> {
+                if (rule == null) {
+                    throw new IllegalArgumentException("Rule for property '" + key + "' is null");
+                }
+                changeChecks.add(compileRule(key, rule));
+            });
+        }
+
+        List<Check> stateChecks = new ArrayList<>();
+        if (definition.getPreconditions() != null) {
+            for (ActionTypeDefinition.Condition condition : definition.getPreconditions()) {
+                if (condition == null) {
+                    throw new IllegalArgumentException("Precondition is null");
+                }
+                stateChecks.add(compileCondition(condition));
+            }
+        }
+
+        List<Consumer<Map<String, Object>>> derivations = new ArrayList<>();
+        if (definition.getDerived() != null) {
+            definition.getDerived().forEach((key, derivation) -> {
+                if (derivation == null) {
+                    throw new IllegalArgumentException("Derived property '" + key + "' is null");
+                }
+                derivations.add(compileDerivation(key, derivation));
+            });
+        }
+
+        Set<String> objectTypes = definition.getObjectTypes() == null
+                ? Set.of() : nameSet(definition.getObjectTypes());
+        return new CompiledActionType(name, objectTypes, List.copyOf(changeChecks), List.copyOf(stateChecks),
+                List.copyOf(derivations));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Checks the submitted changes alone. Returns the first violation, or null.
+     */
+    public String validateChanges(Map<String, Object> changes) {
+        return firstViolation(changeChecks, changes);
+    }
+
+    /**
+     * Checks the object the action is about to be applied to; {@code properties} is null
+     * when the object does not exist. Returns the first violation, or null.
+     */
+    public String checkState(String objectType, Map<String, Object> properties) {
+        if (properties == null) {
+            return requiresObject ? "object does not exist" : null;
+        }
+        if (!objectTypes.isEmpty() && !objectTypes.contains(objectType)) {
+            return "not applicable to objects of type '" + objectType + "'";
+        }
+        return firstViolation(stateChecks, properties);
+    }
+
+    /**
+     * The changes with the derived properties added.
+     */
+    public Map<String, Object> derive(Map<String, Object> changes) {
+        if (derivations.isEmpty()) {
+            return changes;
+        }
+        Map<String, Object> derived = new LinkedHashMap<>(changes);
+        derivations.forEach(derivation -> derivation.accept(derived));
+        return derived;
+    }
+
+    private String firstViolation(List<Check> checks, Map<String, Object> values) {
+        for (Check check : checks) {
+            String violation = check.violation(values);
+            if (violation != null) {
+                return violation;
+            }
+        }
+        return null;
+    }
+
+    private static Check compileRule(String key, ActionTypeDefinition.PropertyRule rule) {
+        List<Check> checks = new ArrayList<>();
+        if (rule.getType() != null) {
+            Class<?> javaType = switch (rule.getType()) {
+                case "string" -> String.class;
+                case "number", "integer" -> Number.class;
+                case "boolean" -> Boolean.class;
+                default -> throw new IllegalArgumentException(
+                        "Unknown type '" + rule.getType() + "' for property '" + key + "'");
+            };
+            boolean integral = rule.getType().equals("integer");
+            checks.add(values -> {
+                Object value = values.get(key);
+                if (!javaType.isInstance(value)
+                        || (integral && ((Number) value).doubleValue() % 1 != 0)) {
+                    return "property '" + key + "' must be " + (integral ? "an " : "a ") + rule.getType();
+                }
+                return null;
+            });
+        }
+        if (rule.getMin() != null || rule.getMax() != null) {
+            double min = rule.getMin() != null ? rule.getMin() : Double.NEGATIVE_INFINITY;
+            double max = rule.getMax() != null ? rule.getMax() : Double.POSITIVE_INFINITY;
+            checks.add(values -> {
+                if (!(values.get(key) instanceof Number number)
+                        || number.doubleValue() < min || number.doubleValue() > max) {
+                    return "property '" + key + "' must be a number between " + min + " and " + max;
+                }
+                return null;
+            });
+        }
+        if (rule.getValues() != null) {
+            // Unlike List.copyOf, keeps null as an allowed value
+            List<Object> allowed = Collections.unmodifiableList(new ArrayList<>(rule.getValues()));
+            checks.add(values -> containsValue(allowed, values.get(key))
+                    ? null : "property '" + key + "' must be one of " + allowed);
+        }
+        if (rule.getPattern() != null) {
+            Pattern pattern = Pattern.compile(rule.getPattern());
+            checks.add(values -> values.get(key) instanceof String text && pattern.matcher(text).matches()
+                    ? null : "property '" + key + "' must match " + rule.getPattern());
+        }
+
+        boolean nullable = rule.isNullable();
+        return changes -> {
+            // Rules only constrain properties the action changes
+            if (!changes.containsKey(key)) {
+                return null;
+            }
+            if (changes.get(key) == null) {
+                return nullable ? null : "property '" + key + "' may not be null";
+            }
+            for (Check check : checks) {
+                String violation = check.violation(changes);
+                if (violation != null) {
+                    return violation;
+                }
+            }
+            return null;
+        };
+    }
+
+    private static Check compileCondition(ActionTypeDefinition.Condition condition) {
+        String key = condition.getProperty();
+        if (key == null) {
+            throw new IllegalArgumentException("Precondition without a property");
+        }
+        if (condition.getEqualTo() != null) {
+            Object expected = condition.getEqualTo();
+            return properties -> valueEquals(properties.get(key), expected)
+                    ? null : "requires '" + key + "' to be " + expected;
+        }
+        if (condition.getNotEqualTo() != null) {
+            Object unexpected = condition.getNotEqualTo();
+            return properties -> valueEquals(properties.get(key), unexpected)
+                    ? "requires '" + key + "' not to be " + unexpected : null;
+        }
+        if (condition.getIn() != null) {
+            List<Object> allowed = Collections.unmodifiableList(new ArrayList<>(condition.getIn()));
+            return properties -> containsValue(allowed, properties.get(key))
+                    ? null : "requires '" + key + "' to be one of " + allowed;
+        }
+        if (condition.getPresent() != null) {
+            boolean present = condition.getPresent();
+            return properties -> properties.containsKey(key) == present
+                    ? null : "requires '" + key + "' to be " + (present ? "set" : "unset");
+        }
+        throw new IllegalArgumentException("Precondition on '" + key + "' has no equalTo, notEqualTo, in or present");
+    }
+
+    private static Consumer<Map<String, Object>> compileDerivation(String key, ActionTypeDefinition.Derivation derivation) {
+        if (derivation.isNow()) {
+            return changes -> changes.put(key, LocalDateTime.now().toString());
+        }
+        if (derivation.getCopyOf() != null) {
+            String source = derivation.getCopyOf();
+            return changes -> {
+                if (changes.containsKey(source)) {
+                    changes.put(key, changes.get(source));
+                }
+            };
+        }
+        if (derivation.getValue() != null) {
+            Object value = derivation.getValue();
+            return changes -> changes.put(key, value);
+        }
+        throw new IllegalArgumentException("Derived property '" + key + "' has no value, copyOf or now");
+    }
+
+    // Set.copyOf rejects nulls with a bare NullPointerException; a null name just never matches
+    private static Set<String> nameSet(List<String> names) {
+        return Collections.unmodifiableSet(new HashSet<>(names));
+    }
+
+    private static boolean containsValue(List<Object> candidates, Object value) {
+        for (Object candidate : candidates) {
+            if (valueEquals(candidate, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // JSON numbers parse to different Java types (1 vs 1.0), so compare them numerically
+    private static boolean valueEquals(Object a, Object b) {
+        if (a instanceof Number x && b instanceof Number y) {
+            return Double.compare(x.doubleValue(), y.doubleValue()) == 0;
+        }
+        return Objects.equals(a, b);
+    }
+}
@@ -1,5 +1,9 @@
 package com.digitaltwin.backend.config;
 
+import graphql.language.IntValue;
+import graphql.language.StringValue;
+import graphql.schema.CoercingParseLiteralException;
+import graphql.schema.CoercingParseValueException;
 import graphql.schema.GraphQLScalarType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,7 +17,8 @@ public class GraphQLConfig {
     @Bean
     public RuntimeWiringConfigurer runtimeWiringConfigurer() {
         return wiringBuilder -> wiringBuilder
-                .scalar(createMapScalar());
+                .scalar(createMapScalar())
+                .scalar(createLongScalar());
     }
 
     private GraphQLScalarType createMapScalar() {
@@ -24,6 +29,49 @@ public class GraphQLConfig {
                 .build();
     }
 
+    private GraphQLScalarType createLongScalar() {
+        return newScalar()
+                .name("Long")
+                .description("A 64-bit signed integer")
+                .coercing(new LongCoercing())
+                .build();
+    }
+
+    private static class LongCoercing implements graphql.schema.Coercing<Long, Long> {
+
+        @Override
+        public Long serialize(Object dataFetcherResult) {
+            return ((Number) dataFetcherResult).longValue();
+        }
+
+        @Override
+        public Long parseValue(Object input) {
+            if (input instanceof Number number) {
+                return number.longValue();
+            }
+            try {
+                return Long.parseLong(String.valueOf(input));
+            } catch (NumberFormatException e) {
+                throw new CoercingParseValueException("Invalid Long value: " + input);
+            }
+        }
+
+        @Override
+        public Long parseLiteral(Object input) {
+            if (input instanceof IntValue intValue) {
+                return intValue.getValue().longValueExact();
+            }
+            if (input instanceof StringValue stringValue) {
+                try {
+                    return Long.parseLong(stringValue.getValue());
+                } catch (NumberFormatException e) {
+                    throw new CoercingParseLiteralException("Invalid Long literal: " + stringValue.getValue());
+                }
+            }
+            throw new CoercingParseLiteralException("Expected an integer literal for Long");
+        }
+    }
+
     private static class MapCoercing implements graphql.schema.Coercing<java.util.Map<String, Object>, java.util.Map<String, Object>> {
 
         @Override
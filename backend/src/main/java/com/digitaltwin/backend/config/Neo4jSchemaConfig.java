@@ -0,0 +1,61 @@
+package com.digitaltwin.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+import java.util.List;
+
+/**
+ * Creates the constraints and indexes the repository queries rely on.
+ * Every single-entity lookup anchors on the business {@code id} property,
+ * so these must exist for those lookups to be index seeks.
+ */
+@Configuration
+public class Neo4jSchemaConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(Neo4jSchemaConfig.class);
+
+    private static final List<String> SCHEMA_STATEMENTS = List.of(
+            "CREATE CONSTRAINT object_id IF NOT EXISTS FOR (o:Object) REQUIRE o.id IS UNIQUE",
+            "CREATE INDEX object_type IF NOT EXISTS FOR (o:Object) ON (o.type)",
+            "CREATE INDEX links_to_id IF NOT EXISTS FOR ()-[r:LINKS_TO]-() ON (r.id)",
+            "CREATE INDEX links_to_type IF NOT EXISTS FOR ()-[r:LINKS_TO]-() ON (r.type)",
+            "CREATE CONSTRAINT action_id IF NOT EXISTS FOR (a:Action) REQUIRE a.id IS UNIQUE",
+            "CREATE INDEX action_object_id IF NOT EXISTS FOR (a:Action) ON (a.objectId)",
+            "CREATE INDEX action_timestamp IF NOT EXISTS FOR (a:Action) ON (a.timestamp)",
+            "CREATE INDEX action_user IF NOT EXISTS FOR (a:Action) ON (a.user)",
+            "CREATE INDEX object_snapshot_object_id IF NOT EXISTS FOR (s:ObjectSnapshot) ON (s.objectId)",
+            "CREATE INDEX audit_log_timestamp IF NOT EXISTS FOR (a:AuditLog) ON (a.timestamp)",
+            "CREATE INDEX object_change_seq IF NOT EXISTS FOR (o:Object) ON (o.changeSeq)",
+            "CREATE INDEX links_to_change_seq IF NOT EXISTS FOR ()-[r:LINKS_TO]-() ON (r.changeSeq)",
+            "CREATE INDEX action_change_seq IF NOT EXISTS FOR (a:Action) ON (a.changeSeq)",
+            "CREATE INDEX tombstone_change_seq IF NOT EXISTS FOR (t:Tombstone) ON (t.changeSeq)",
+            "CREATE CONSTRAINT object_natural_key IF NOT EXISTS FOR (o:Object) REQUIRE (o.type, o.naturalKey) IS UNIQUE",
+            // Replaced by object_text_search, which leaves property keys out of the index
+            "DROP INDEX object_search IF EXISTS",
+            "CREATE FULLTEXT INDEX object_text_search IF NOT EXISTS FOR (o:Object) ON EACH [o.type, o.searchText]",
+            "CREATE CONSTRAINT ingestion_job_id IF NOT EXISTS FOR (j:IngestionJob) REQUIRE j.id IS UNIQUE",
+            "CREATE CONSTRAINT change_log_checkpoint_source IF NOT EXISTS FOR (c:ChangeLogCheckpoint) REQUIRE c.source IS UNIQUE",
+            "CREATE INDEX link_natural_key IF NOT EXISTS FOR ()-[r:LINKS_TO]-() ON (r.type, r.naturalKey)"
+    );
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createSchema() {
+        for (String statement : SCHEMA_STATEMENTS) {
+            try {
+                neo4jClient.query(statement).run();
+            } catch (Exception e) {
+                // A missing index only costs performance, so don't prevent startup
+                logger.warn("Failed to apply schema statement [{}]: {}", statement, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.digitaltwin.backend.controller;
+
+import com.digitaltwin.backend.dto.DegreeBucket;
+import com.digitaltwin.backend.dto.KeyCount;
+import com.digitaltwin.backend.service.AggregationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/aggregations")
+@PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+public class AggregationController {
+
+    @Autowired
+    private AggregationService aggregationService;
+
+    @GetMapping("/object-types")
+    public List<KeyCount> countObjectsByType() {
+        return aggregationService.countObjectsByType();
+    }
+
+    @GetMapping("/link-types")
+    public List<KeyCount> countLinksByType() {
+        return aggregationService.countLinksByType();
+    }
+
+    @GetMapping("/degrees")
+    public List<DegreeBucket> getDegreeDistribution(@RequestParam(required = false) String type) {
+        return aggregationService.getDegreeDistribution(type);
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<List<KeyCount>> getPropertyFacets(@RequestParam String type,
+                                                            @RequestParam String property,
+                                                            @RequestParam(defaultValue = "20") int limit) {
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(aggregationService.getPropertyFacets(type, property, limit));
+    }
+}
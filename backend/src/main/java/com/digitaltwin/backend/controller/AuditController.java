@@ -4,9 +4,11 @@ import com.digitaltwin.backend.model.AuditLog;
 import com.digitaltwin.backend.service.AuditService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -52,15 +54,20 @@ public class AuditController {
         return ResponseEntity.ok(logs);
     }
 
+    @GetMapping(value = "/date-range/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<AuditLog> streamLogsByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        return auditService.streamLogsByDateRange(startDate, endDate);
+    }
+
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getAuditStats() {
-        // This could be expanded to provide more detailed statistics
+        // Counted in the database so no audit entries are loaded
         Map<String, Object> stats = Map.of(
-            "totalLogs", auditService.getRecentLogs(1000).size(),
-            "failedActions", auditService.getFailedActions().size(),
-            "recentLogins", auditService.getLogsByAction("LOGIN").stream()
-                .filter(log -> log.getTimestamp().isAfter(LocalDateTime.now().minusDays(1)))
-                .count()
+            "totalLogs", auditService.countLogs(),
+            "failedActions", auditService.countFailedActions(),
+            "recentLogins", auditService.countActionsSince("LOGIN", LocalDateTime.now().minusDays(1))
         );
         return ResponseEntity.ok(stats);
     }
@@ -0,0 +1,53 @@
+package com.digitaltwin.backend.controller;
+
+import com.digitaltwin.backend.dto.ClusterDetail;
+import com.digitaltwin.backend.dto.GraphChanges;
+import com.digitaltwin.backend.dto.GraphOverview;
+import com.digitaltwin.backend.service.GraphChangesService;
+import com.digitaltwin.backend.service.GraphOverviewService;
+import com.digitaltwin.backend.service.LayoutService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/graph")
+@PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+public class GraphController {
+
+    @Autowired
+    private GraphOverviewService graphOverviewService;
+
+    @Autowired
+    private LayoutService layoutService;
+
+    @Autowired
+    private GraphChangesService graphChangesService;
+
+    @GetMapping("/overview")
+    public GraphOverview getOverview() {
+        return graphOverviewService.getOverview();
+    }
+
+    @GetMapping("/clusters/{type}")
+    public ClusterDetail getCluster(@PathVariable String type, @RequestParam(required = false) Integer limit) {
+        return graphOverviewService.getCluster(type, limit);
+    }
+
+    @GetMapping("/changes")
+    public GraphChanges getChanges(@RequestParam(defaultValue = "0") long since,
+                                   @RequestParam(required = false) Integer limit) {
+        return graphChangesService.getChangesSince(since, limit);
+    }
+
+    @GetMapping("/layout")
+    public LayoutService.LayoutStatus getLayoutStatus() {
+        return layoutService.getStatus();
+    }
+
+    @PostMapping("/layout/recompute")
+    @PreAuthorize("hasRole('ADMIN')")
+    public LayoutService.LayoutStatus recomputeLayout() {
+        return layoutService.recomputeAsync();
+    }
+}
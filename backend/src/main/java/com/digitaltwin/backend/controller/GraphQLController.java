@@ -1,21 +1,40 @@
 package com.digitaltwin.backend.controller;
 
+import com.digitaltwin.backend.dto.ActionRequest;
+import com.digitaltwin.backend.dto.ClusterDetail;
+import com.digitaltwin.backend.dto.DegreeBucket;
+import com.digitaltwin.backend.dto.GraphChanges;
+import com.digitaltwin.backend.dto.GraphOverview;
+import com.digitaltwin.backend.dto.KeyCount;
+import com.digitaltwin.backend.dto.SearchHit;
 import com.digitaltwin.backend.model.Action;
 import com.digitaltwin.backend.model.Link;
 import com.digitaltwin.backend.model.ObjectEntity;
+import com.digitaltwin.backend.service.ActionBatcher;
+import com.digitaltwin.backend.service.ActionRollbackService;
 import com.digitaltwin.backend.service.ActionService;
+import com.digitaltwin.backend.service.ActionTypeRegistry;
+import com.digitaltwin.backend.service.AggregationService;
+import com.digitaltwin.backend.service.GraphChangesService;
+import com.digitaltwin.backend.service.GraphOverviewService;
 import com.digitaltwin.backend.service.LinkService;
 import com.digitaltwin.backend.service.ObjectService;
+import com.digitaltwin.backend.service.SearchService;
+import com.digitaltwin.backend.service.TemporalQueryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 
 @Controller
 public class GraphQLController {
@@ -29,10 +48,41 @@ public class GraphQLController {
     @Autowired
     private ActionService actionService;
 
+    @Autowired
+    private ActionBatcher actionBatcher;
+
+    @Autowired
+    private ActionRollbackService actionRollbackService;
+
+    @Autowired
+    private ActionTypeRegistry actionTypeRegistry;
+
+    @Autowired
+    private GraphOverviewService graphOverviewService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private TemporalQueryService temporalQueryService;
+
+    @Autowired
+    private GraphChangesService graphChangesService;
+
+    @Autowired
+    private AggregationService aggregationService;
+
     // Object Queries
     @QueryMapping
     @PreAuthorize("isAuthenticated()")
-    public List<ObjectEntity> objects(@Argument String type, @Argument Integer limit) {
+    public List<ObjectEntity> objects(@Argument String type, @Argument Integer limit, @Argument String asOf) {
+        if (asOf != null) {
+            List<ObjectEntity> objects = temporalQueryService.getObjectsAsOf(type, LocalDateTime.parse(asOf));
+            if (limit != null && limit > 0) {
+                return objects.subList(0, Math.min(limit, objects.size()));
+            }
+            return objects;
+        }
         if (type != null) {
             List<ObjectEntity> objects = objectService.getObjectsByType(type);
             if (limit != null && limit > 0) {
@@ -49,11 +99,19 @@ public class GraphQLController {
 
     @QueryMapping
     @PreAuthorize("isAuthenticated()")
-    public ObjectEntity object(@Argument String id) {
-        Optional<ObjectEntity> obj = objectService.getObjectById(id);
+    public ObjectEntity object(@Argument String id, @Argument String asOf) {
+        Optional<ObjectEntity> obj = asOf != null
+                ? temporalQueryService.getObjectAsOf(id, LocalDateTime.parse(asOf))
+                : objectService.getObjectById(id);
         return obj.orElse(null);
     }
 
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public ObjectEntity objectFromActions(@Argument String id) {
+        return temporalQueryService.getObjectFromActions(id).orElse(null);
+    }
+
     @QueryMapping
     @PreAuthorize("isAuthenticated()")
     public List<ObjectEntity> connectedObjects(@Argument String id, @Argument Integer depth) {
@@ -61,6 +119,12 @@ public class GraphQLController {
         return objectService.getConnectedObjects(id, depth);
     }
 
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public List<SearchHit> search(@Argument String text, @Argument List<String> types, @Argument Integer limit) {
+        return searchService.search(text, types, limit);
+    }
+
     // Link Queries
     @QueryMapping
     @PreAuthorize("isAuthenticated()")
@@ -71,6 +135,53 @@ public class GraphQLController {
         return linkService.getAllLinks();
     }
 
+    // Graph Overview Queries
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public GraphOverview graphOverview() {
+        return graphOverviewService.getOverview();
+    }
+
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public ClusterDetail graphCluster(@Argument String type, @Argument Integer limit) {
+        return graphOverviewService.getCluster(type, limit);
+    }
+
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public GraphChanges graphChanges(@Argument Long since, @Argument Integer limit) {
+        return graphChangesService.getChangesSince(since != null ? since : 0L, limit);
+    }
+
+    // Aggregation Queries
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public List<KeyCount> objectTypeCounts() {
+        return aggregationService.countObjectsByType();
+    }
+
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public List<KeyCount> linkTypeCounts() {
+        return aggregationService.countLinksByType();
+    }
+
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public List<DegreeBucket> degreeDistribution(@Argument String type) {
+        return aggregationService.getDegreeDistribution(type);
+    }
+
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public List<KeyCount> propertyFacets(@Argument String type, @Argument String property, @Argument Integer limit) {
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return aggregationService.getPropertyFacets(type, property, limit != null ? limit : 20);
+    }
+
     // Action Queries
     @QueryMapping
     @PreAuthorize("isAuthenticated()")
@@ -160,16 +271,48 @@ public class GraphQLController {
         }
     }
 
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public List<String> actionTypes() {
+        return actionTypeRegistry.getTypeNames().stream().sorted().toList();
+    }
+
     // Action Mutations
+    // Single actions go through the batcher, so concurrent callers share one write
     @MutationMapping
     @PreAuthorize("isAuthenticated()")
-    public Action createAction(@Argument Map<String, Object> input) {
-        String type = (String) input.get("type");
-        String objectId = (String) input.get("objectId");
-        @SuppressWarnings("unchecked")
-        Map<String, Object> changes = (Map<String, Object>) input.get("changes");
-        String user = (String) input.get("user");
+    public Action createAction(@Argument Map<String, Object> input) throws InterruptedException {
+        try {
+            return actionBatcher.submit(toActionRequest(input)).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @MutationMapping
+    @PreAuthorize("isAuthenticated()")
+    public ActionService.BatchResult applyActions(@Argument List<Map<String, Object>> inputs) {
+        return actionService.applyActions(inputs.stream().map(GraphQLController::toActionRequest).toList());
+    }
+
+    // Bulk reverts touch many users' data, so they are reserved for admins
+    @MutationMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ActionRollbackService.RollbackResult rollbackActions(@Argument String actionId, @Argument String user,
+                                                               @Argument String from, @Argument String to) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return actionRollbackService.rollback(actionId, user,
+                from != null ? LocalDateTime.parse(from) : null,
+                to != null ? LocalDateTime.parse(to) : null,
+                authentication.getName());
+    }
 
-        return actionService.createAction(type, objectId, changes, user);
+    @SuppressWarnings("unchecked")
+    private static ActionRequest toActionRequest(Map<String, Object> input) {
+        return new ActionRequest((String) input.get("type"), (String) input.get("objectId"),
+                (Map<String, Object>) input.get("changes"), (String) input.get("user"));
     }
 }
\ No newline at end of file
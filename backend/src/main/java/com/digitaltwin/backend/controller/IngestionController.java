@@ -1,13 +1,33 @@
 package com.digitaltwin.backend.controller;
 
+import com.digitaltwin.backend.dto.DeadLetter;
+import com.digitaltwin.backend.dto.ExtractedEntity;
+import com.digitaltwin.backend.dto.TypeProfile;
+import com.digitaltwin.backend.model.ChangeLogCheckpoint;
+import com.digitaltwin.backend.model.IngestedFile;
+import com.digitaltwin.backend.model.IngestionJob;
 import com.digitaltwin.backend.model.ObjectEntity;
+import com.digitaltwin.backend.service.ChangeLogIngestionService;
+import com.digitaltwin.backend.service.DeadLetterStore;
+import com.digitaltwin.backend.service.DirectoryIngestionService;
+import com.digitaltwin.backend.service.IngestionJobService;
+import com.digitaltwin.backend.service.IngestionPipelineService;
+import com.digitaltwin.backend.service.IngestionProfiler;
 import com.digitaltwin.backend.service.IngestionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -18,6 +38,24 @@ public class IngestionController {
     @Autowired
     private IngestionService ingestionService;
 
+    @Autowired
+    private IngestionJobService ingestionJobService;
+
+    @Autowired
+    private IngestionPipelineService ingestionPipelineService;
+
+    @Autowired
+    private DirectoryIngestionService directoryIngestionService;
+
+    @Autowired
+    private DeadLetterStore deadLetterStore;
+
+    @Autowired
+    private IngestionProfiler ingestionProfiler;
+
+    @Autowired
+    private ChangeLogIngestionService changeLogIngestionService;
+
     @PostMapping("/structured")
     public ResponseEntity<List<ObjectEntity>> ingestStructuredData(
             @RequestParam String sourceType,
@@ -42,23 +80,145 @@ public class IngestionController {
         }
     }
 
+    @PostMapping("/extract")
+    public ResponseEntity<List<List<ExtractedEntity>>> extractEntities(@RequestBody List<String> documents) {
+        try {
+            return ResponseEntity.ok(ingestionService.extractEntities(documents));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/batch")
     public ResponseEntity<IngestionService.IngestionResult> batchIngest(
             @RequestBody List<Map<String, Object>> batchData,
-            @RequestParam String objectType) {
+            @RequestParam String objectType,
+            @RequestParam(defaultValue = "objects") String response) {
         try {
-            IngestionService.IngestionResult result = ingestionService.batchIngest(batchData, objectType);
+            IngestionService.ResultMode mode = IngestionService.ResultMode.valueOf(response.toUpperCase(Locale.ROOT));
+            IngestionService.IngestionResult result = ingestionService.batchIngest(batchData, objectType, mode);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @PostMapping(value = "/stream", consumes = {"application/x-ndjson", "application/jsonl", "text/plain"})
+    public ResponseEntity<IngestionService.IngestionResult> streamIngest(
+            @RequestParam String objectType,
+            InputStream body) {
+        try {
+            return ResponseEntity.ok(ingestionService.streamIngest(body, objectType));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/pipeline/metrics")
+    public ResponseEntity<Map<String, Object>> getPipelineMetrics() {
+        return ResponseEntity.ok(ingestionPipelineService.getMetrics());
+    }
+
+    @PostMapping(value = "/jobs", consumes = {"application/x-ndjson", "application/jsonl", "text/plain"})
+    public ResponseEntity<IngestionJob> submitJob(
+            @RequestParam String objectType,
+            InputStream body) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            IngestionJob job = ingestionJobService.submit(body, objectType, authentication.getName());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    @PreAuthorize("hasRole('ADMIN') or @ingestionJobService.isSubmittedBy(#id, authentication.name)")
+    public ResponseEntity<IngestionJob> getJob(@PathVariable String id) {
+        return ingestionJobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/jobs/{id}/ids", produces = MediaType.TEXT_PLAIN_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or @ingestionJobService.isSubmittedBy(#id, authentication.name)")
+    public ResponseEntity<Resource> getJobIds(@PathVariable String id) {
+        return ingestionJobService.getIdsFile(id)
+                .<ResponseEntity<Resource>>map(path -> ResponseEntity.ok(new FileSystemResource(path)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    @PreAuthorize("hasRole('ADMIN') or @ingestionJobService.isSubmittedBy(#id, authentication.name)")
+    public ResponseEntity<IngestionJob> cancelJob(@PathVariable String id) {
+        return ingestionJobService.cancel(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/files")
+    public ResponseEntity<List<IngestedFile>> getIngestedFiles() {
+        return ResponseEntity.ok(directoryIngestionService.getFiles());
+    }
+
+    @GetMapping("/change-log")
+    public ResponseEntity<List<ChangeLogCheckpoint>> getChangeLogCheckpoints() {
+        return ResponseEntity.ok(changeLogIngestionService.getCheckpoints());
+    }
+
+    @GetMapping("/profiles")
+    public ResponseEntity<List<TypeProfile>> getProfiles() {
+        return ResponseEntity.ok(ingestionProfiler.getProfiles());
+    }
+
+    @GetMapping("/profiles/{type}")
+    public ResponseEntity<TypeProfile> getProfile(@PathVariable String type) {
+        return ingestionProfiler.getProfile(type)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/profiles/{type}")
+    public ResponseEntity<Void> resetProfile(@PathVariable String type) {
+        return ingestionProfiler.reset(type) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/dead-letters")
+    public ResponseEntity<Map<String, Object>> getDeadLetters(@RequestParam(defaultValue = "100") int limit) {
+        List<DeadLetter> entries = deadLetterStore.list(Math.min(limit, 1000));
+        return ResponseEntity.ok(Map.of("count", deadLetterStore.count(), "entries", entries));
+    }
+
+    @PostMapping("/dead-letters/replay")
+    public ResponseEntity<IngestionService.IngestionResult> replayDeadLetters() {
+        try {
+            return ResponseEntity.ok(ingestionService.replayDeadLetters());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @DeleteMapping("/dead-letters")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> clearDeadLetters() {
+        try {
+            return ResponseEntity.ok(Map.of("cleared", deadLetterStore.clear()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @PostMapping("/relationships")
     public ResponseEntity<String> createRelationships(@RequestBody List<ObjectEntity> objects) {
         try {
-            ingestionService.createRelationshipsFromIngestedData(objects);
-            return ResponseEntity.ok("Relationships created successfully");
+            int created = ingestionService.createRelationshipsFromIngestedData(objects);
+            return ResponseEntity.ok("Created " + created + " relationships");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error creating relationships: " + e.getMessage());
         }
@@ -3,8 +3,10 @@ package com.digitaltwin.backend.controller;
 import com.digitaltwin.backend.model.Link;
 import com.digitaltwin.backend.service.LinkService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +34,11 @@ public class LinkController {
         return linkService.getLinksByType(type);
     }
 
+    @GetMapping(value = "/type/{type}/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Link> streamLinksByType(@PathVariable String type) {
+        return linkService.streamLinksByType(type);
+    }
+
     @GetMapping("/source/{sourceId}")
     public List<Link> getLinksBySourceId(@PathVariable String sourceId) {
         return linkService.getLinksBySourceId(sourceId);
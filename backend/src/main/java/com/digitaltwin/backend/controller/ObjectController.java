@@ -2,10 +2,15 @@ package com.digitaltwin.backend.controller;
 
 import com.digitaltwin.backend.model.ObjectEntity;
 import com.digitaltwin.backend.service.ObjectService;
+import com.digitaltwin.backend.service.TemporalQueryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,21 +22,39 @@ public class ObjectController {
     @Autowired
     private ObjectService objectService;
 
+    @Autowired
+    private TemporalQueryService temporalQueryService;
+
     @GetMapping
     public List<ObjectEntity> getAllObjects() {
         return objectService.getAllObjects();
     }
 
     @GetMapping("/{id}")
-    public Optional<ObjectEntity> getObjectById(@PathVariable String id) {
+    public Optional<ObjectEntity> getObjectById(
+            @PathVariable String id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        if (asOf != null) {
+            return temporalQueryService.getObjectAsOf(id, asOf);
+        }
         return objectService.getObjectById(id);
     }
 
     @GetMapping("/type/{type}")
-    public List<ObjectEntity> getObjectsByType(@PathVariable String type) {
+    public List<ObjectEntity> getObjectsByType(
+            @PathVariable String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        if (asOf != null) {
+            return temporalQueryService.getObjectsAsOf(type, asOf);
+        }
         return objectService.getObjectsByType(type);
     }
 
+    @GetMapping(value = "/type/{type}/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ObjectEntity> streamObjectsByType(@PathVariable String type) {
+        return objectService.streamObjectsByType(type);
+    }
+
     @PostMapping
     public ObjectEntity createObject(@RequestBody ObjectEntity object) {
         return objectService.saveObject(object);
@@ -0,0 +1,25 @@
+package com.digitaltwin.backend.controller;
+
+import com.digitaltwin.backend.dto.SearchHit;
+import com.digitaltwin.backend.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+@PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    @GetMapping
+    public List<SearchHit> search(@RequestParam("q") String text,
+                                  @RequestParam(required = false) List<String> types,
+                                  @RequestParam(required = false) Integer limit) {
+        return searchService.search(text, types, limit);
+    }
+}
@@ -0,0 +1,25 @@
+package com.digitaltwin.backend.dto;
+
+public class ActionRejection {
+
+    private int index;
+    private String objectId;
+    private String reason;
+
+    public ActionRejection() {}
+
+    public ActionRejection(int index, String objectId, String reason) {
+        this.index = index;
+        this.objectId = objectId;
+        this.reason = reason;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public String getObjectId() { return objectId; }
+    public void setObjectId(String objectId) { this.objectId = objectId; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
@@ -0,0 +1,32 @@
+package com.digitaltwin.backend.dto;
+
+import java.util.Map;
+
+public class ActionRequest {
+
+    private String type;
+    private String objectId;
+    private Map<String, Object> changes;
+    private String user;
+
+    public ActionRequest() {}
+
+    public ActionRequest(String type, String objectId, Map<String, Object> changes, String user) {
+        this.type = type;
+        this.objectId = objectId;
+        this.changes = changes;
+        this.user = user;
+    }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getObjectId() { return objectId; }
+    public void setObjectId(String objectId) { this.objectId = objectId; }
+
+    public Map<String, Object> getChanges() { return changes; }
+    public void setChanges(Map<String, Object> changes) { this.changes = changes; }
+
+    public String getUser() { return user; }
+    public void setUser(String user) { this.user = user; }
+}
@@ -0,0 +1,34 @@
+package com.digitaltwin.backend.dto;
+
+import com.digitaltwin.backend.model.Link;
+import com.digitaltwin.backend.model.ObjectEntity;
+
+import java.util.List;
+
+/**
+ * Drill-down into one cluster: its member objects (up to a limit), the links
+ * between those members, and aggregated edges to the other clusters.
+ */
+public class ClusterDetail {
+
+    private ClusterNode cluster;
+    private List<ObjectEntity> objects;
+    private List<Link> links;
+    private List<ClusterEdge> externalEdges;
+    private boolean truncated;
+
+    public ClusterNode getCluster() { return cluster; }
+    public void setCluster(ClusterNode cluster) { this.cluster = cluster; }
+
+    public List<ObjectEntity> getObjects() { return objects; }
+    public void setObjects(List<ObjectEntity> objects) { this.objects = objects; }
+
+    public List<Link> getLinks() { return links; }
+    public void setLinks(List<Link> links) { this.links = links; }
+
+    public List<ClusterEdge> getExternalEdges() { return externalEdges; }
+    public void setExternalEdges(List<ClusterEdge> externalEdges) { this.externalEdges = externalEdges; }
+
+    public boolean isTruncated() { return truncated; }
+    public void setTruncated(boolean truncated) { this.truncated = truncated; }
+}
@@ -0,0 +1,30 @@
+package com.digitaltwin.backend.dto;
+
+public class ClusterEdge {
+
+    private String sourceCluster;
+    private String targetCluster;
+    private String linkType;
+    private long count;
+
+    public ClusterEdge() {}
+
+    public ClusterEdge(String sourceCluster, String targetCluster, String linkType, long count) {
+        this.sourceCluster = sourceCluster;
+        this.targetCluster = targetCluster;
+        this.linkType = linkType;
+        this.count = count;
+    }
+
+    public String getSourceCluster() { return sourceCluster; }
+    public void setSourceCluster(String sourceCluster) { this.sourceCluster = sourceCluster; }
+
+    public String getTargetCluster() { return targetCluster; }
+    public void setTargetCluster(String targetCluster) { this.targetCluster = targetCluster; }
+
+    public String getLinkType() { return linkType; }
+    public void setLinkType(String linkType) { this.linkType = linkType; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
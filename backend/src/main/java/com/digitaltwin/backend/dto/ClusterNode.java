@@ -0,0 +1,25 @@
+package com.digitaltwin.backend.dto;
+
+public class ClusterNode {
+
+    private String id;
+    private String type;
+    private long objectCount;
+
+    public ClusterNode() {}
+
+    public ClusterNode(String type, long objectCount) {
+        this.id = "cluster:" + type;
+        this.type = type;
+        this.objectCount = objectCount;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public long getObjectCount() { return objectCount; }
+    public void setObjectCount(long objectCount) { this.objectCount = objectCount; }
+}
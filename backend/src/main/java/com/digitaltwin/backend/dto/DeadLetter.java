@@ -0,0 +1,46 @@
+package com.digitaltwin.backend.dto;
+
+public class DeadLetter {
+
+    private String objectId;
+    private String objectType;
+    private String propertiesJson;
+    private String error;
+    private boolean transientError;
+    private int attempts;
+    private long failedAt;
+
+    public DeadLetter() {}
+
+    public DeadLetter(String objectId, String objectType, String propertiesJson, String error,
+                      boolean transientError, int attempts, long failedAt) {
+        this.objectId = objectId;
+        this.objectType = objectType;
+        this.propertiesJson = propertiesJson;
+        this.error = error;
+        this.transientError = transientError;
+        this.attempts = attempts;
+        this.failedAt = failedAt;
+    }
+
+    public String getObjectId() { return objectId; }
+    public void setObjectId(String objectId) { this.objectId = objectId; }
+
+    public String getObjectType() { return objectType; }
+    public void setObjectType(String objectType) { this.objectType = objectType; }
+
+    public String getPropertiesJson() { return propertiesJson; }
+    public void setPropertiesJson(String propertiesJson) { this.propertiesJson = propertiesJson; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public boolean isTransientError() { return transientError; }
+    public void setTransientError(boolean transientError) { this.transientError = transientError; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public long getFailedAt() { return failedAt; }
+    public void setFailedAt(long failedAt) { this.failedAt = failedAt; }
+}
@@ -0,0 +1,25 @@
+package com.digitaltwin.backend.dto;
+
+public class DegreeBucket {
+
+    private long minDegree;
+    private long maxDegree;
+    private long objectCount;
+
+    public DegreeBucket() {}
+
+    public DegreeBucket(long minDegree, long maxDegree, long objectCount) {
+        this.minDegree = minDegree;
+        this.maxDegree = maxDegree;
+        this.objectCount = objectCount;
+    }
+
+    public long getMinDegree() { return minDegree; }
+    public void setMinDegree(long minDegree) { this.minDegree = minDegree; }
+
+    public long getMaxDegree() { return maxDegree; }
+    public void setMaxDegree(long maxDegree) { this.maxDegree = maxDegree; }
+
+    public long getObjectCount() { return objectCount; }
+    public void setObjectCount(long objectCount) { this.objectCount = objectCount; }
+}
@@ -0,0 +1,46 @@
+package com.digitaltwin.backend.dto;
+
+public class ExtractedEntity {
+
+    private String objectId;
+    private String objectType;
+    private String name;
+    private String matchedText;
+    private int start;
+    private int end;
+    private double confidence;
+
+    public ExtractedEntity() {}
+
+    public ExtractedEntity(String objectId, String objectType, String name, String matchedText,
+                           int start, int end, double confidence) {
+        this.objectId = objectId;
+        this.objectType = objectType;
+        this.name = name;
+        this.matchedText = matchedText;
+        this.start = start;
+        this.end = end;
+        this.confidence = confidence;
+    }
+
+    public String getObjectId() { return objectId; }
+    public void setObjectId(String objectId) { this.objectId = objectId; }
+
+    public String getObjectType() { return objectType; }
+    public void setObjectType(String objectType) { this.objectType = objectType; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getMatchedText() { return matchedText; }
+    public void setMatchedText(String matchedText) { this.matchedText = matchedText; }
+
+    public int getStart() { return start; }
+    public void setStart(int start) { this.start = start; }
+
+    public int getEnd() { return end; }
+    public void setEnd(int end) { this.end = end; }
+
+    public double getConfidence() { return confidence; }
+    public void setConfidence(double confidence) { this.confidence = confidence; }
+}
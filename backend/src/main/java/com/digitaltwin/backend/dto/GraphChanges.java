@@ -0,0 +1,52 @@
+package com.digitaltwin.backend.dto;
+
+import com.digitaltwin.backend.model.Action;
+import com.digitaltwin.backend.model.Link;
+import com.digitaltwin.backend.model.ObjectEntity;
+
+import java.util.List;
+
+/**
+ * Everything that changed in (fromSequence, toSequence]. Clients pass
+ * toSequence as the next {@code since}; when hasMore is set they should
+ * ask again immediately.
+ */
+public class GraphChanges {
+
+    private long fromSequence;
+    private long toSequence;
+    private boolean hasMore;
+    private List<ObjectEntity> createdObjects;
+    private List<ObjectEntity> updatedObjects;
+    private List<String> deletedObjectIds;
+    private List<Link> changedLinks;
+    private List<String> deletedLinkIds;
+    private List<Action> actions;
+
+    public long getFromSequence() { return fromSequence; }
+    public void setFromSequence(long fromSequence) { this.fromSequence = fromSequence; }
+
+    public long getToSequence() { return toSequence; }
+    public void setToSequence(long toSequence) { this.toSequence = toSequence; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public List<ObjectEntity> getCreatedObjects() { return createdObjects; }
+    public void setCreatedObjects(List<ObjectEntity> createdObjects) { this.createdObjects = createdObjects; }
+
+    public List<ObjectEntity> getUpdatedObjects() { return updatedObjects; }
+    public void setUpdatedObjects(List<ObjectEntity> updatedObjects) { this.updatedObjects = updatedObjects; }
+
+    public List<String> getDeletedObjectIds() { return deletedObjectIds; }
+    public void setDeletedObjectIds(List<String> deletedObjectIds) { this.deletedObjectIds = deletedObjectIds; }
+
+    public List<Link> getChangedLinks() { return changedLinks; }
+    public void setChangedLinks(List<Link> changedLinks) { this.changedLinks = changedLinks; }
+
+    public List<String> getDeletedLinkIds() { return deletedLinkIds; }
+    public void setDeletedLinkIds(List<String> deletedLinkIds) { this.deletedLinkIds = deletedLinkIds; }
+
+    public List<Action> getActions() { return actions; }
+    public void setActions(List<Action> actions) { this.actions = actions; }
+}
@@ -0,0 +1,32 @@
+package com.digitaltwin.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Aggregated view of the graph: one super-node per object type and
+ * one edge per (source type, link type, target type) with its link count.
+ */
+public class GraphOverview {
+
+    private List<ClusterNode> clusters;
+    private List<ClusterEdge> edges;
+    private long totalObjects;
+    private long totalLinks;
+    private LocalDateTime computedAt;
+
+    public List<ClusterNode> getClusters() { return clusters; }
+    public void setClusters(List<ClusterNode> clusters) { this.clusters = clusters; }
+
+    public List<ClusterEdge> getEdges() { return edges; }
+    public void setEdges(List<ClusterEdge> edges) { this.edges = edges; }
+
+    public long getTotalObjects() { return totalObjects; }
+    public void setTotalObjects(long totalObjects) { this.totalObjects = totalObjects; }
+
+    public long getTotalLinks() { return totalLinks; }
+    public void setTotalLinks(long totalLinks) { this.totalLinks = totalLinks; }
+
+    public LocalDateTime getComputedAt() { return computedAt; }
+    public void setComputedAt(LocalDateTime computedAt) { this.computedAt = computedAt; }
+}
@@ -0,0 +1,56 @@
+package com.digitaltwin.backend.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class PropertyProfile {
+
+    private String key;
+    private long presentCount;
+    private double presenceRatio;
+    private Map<String, Long> kinds;
+    private Double min;
+    private Double max;
+    private Integer minLength;
+    private Integer maxLength;
+    private long distinctEstimate;
+    private List<KeyCount> topValues;
+    private long firstSeenAt;
+    private long lastSeenAt;
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public long getPresentCount() { return presentCount; }
+    public void setPresentCount(long presentCount) { this.presentCount = presentCount; }
+
+    public double getPresenceRatio() { return presenceRatio; }
+    public void setPresenceRatio(double presenceRatio) { this.presenceRatio = presenceRatio; }
+
+    public Map<String, Long> getKinds() { return kinds; }
+    public void setKinds(Map<String, Long> kinds) { this.kinds = kinds; }
+
+    public Double getMin() { return min; }
+    public void setMin(Double min) { this.min = min; }
+
+    public Double getMax() { return max; }
+    public void setMax(Double max) { this.max = max; }
+
+    public Integer getMinLength() { return minLength; }
+    public void setMinLength(Integer minLength) { this.minLength = minLength; }
+
+    public Integer getMaxLength() { return maxLength; }
+    public void setMaxLength(Integer maxLength) { this.maxLength = maxLength; }
+
+    public long getDistinctEstimate() { return distinctEstimate; }
+    public void setDistinctEstimate(long distinctEstimate) { this.distinctEstimate = distinctEstimate; }
+
+    public List<KeyCount> getTopValues() { return topValues; }
+    public void setTopValues(List<KeyCount> topValues) { this.topValues = topValues; }
+
+    public long getFirstSeenAt() { return firstSeenAt; }
+    public void setFirstSeenAt(long firstSeenAt) { this.firstSeenAt = firstSeenAt; }
+
+    public long getLastSeenAt() { return lastSeenAt; }
+    public void setLastSeenAt(long lastSeenAt) { this.lastSeenAt = lastSeenAt; }
+}
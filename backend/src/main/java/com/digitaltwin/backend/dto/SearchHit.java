@@ -0,0 +1,29 @@
+package com.digitaltwin.backend.dto;
+
+import com.digitaltwin.backend.model.ObjectEntity;
+
+import java.util.Map;
+
+public class SearchHit {
+
+    private ObjectEntity object;
+    private double score;
+    private Map<String, String> highlights;
+
+    public SearchHit() {}
+
+    public SearchHit(ObjectEntity object, double score, Map<String, String> highlights) {
+        this.object = object;
+        this.score = score;
+        this.highlights = highlights;
+    }
+
+    public ObjectEntity getObject() { return object; }
+    public void setObject(ObjectEntity object) { this.object = object; }
+
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+
+    public Map<String, String> getHighlights() { return highlights; }
+    public void setHighlights(Map<String, String> highlights) { this.highlights = highlights; }
+}
@@ -0,0 +1,23 @@
+package com.digitaltwin.backend.dto;
+
+import java.util.List;
+
+public class TypeProfile {
+
+    private String type;
+    private long records;
+    private long untrackedValues;
+    private List<PropertyProfile> properties;
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public long getRecords() { return records; }
+    public void setRecords(long records) { this.records = records; }
+
+    public long getUntrackedValues() { return untrackedValues; }
+    public void setUntrackedValues(long untrackedValues) { this.untrackedValues = untrackedValues; }
+
+    public List<PropertyProfile> getProperties() { return properties; }
+    public void setProperties(List<PropertyProfile> properties) { this.properties = properties; }
+}
@@ -0,0 +1,113 @@
+package com.digitaltwin.backend.event;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Published after objects or links have been written, carrying what changed
+ * so listeners can maintain derived state without re-reading the graph.
+ */
+public class GraphChangeEvent {
+
+    public record EdgeKey(String sourceType, String linkType, String targetType) {}
+
+    private final Map<String, Long> objectCountDeltas = new HashMap<>();
+    private final Map<EdgeKey, Long> linkCountDeltas = new HashMap<>();
+    private final Set<String> changedObjectIds = new LinkedHashSet<>();
+    private final Set<String> deletedObjectIds = new LinkedHashSet<>();
+    private final Set<String> changedLinkIds = new LinkedHashSet<>();
+    private final Set<String> relinkedObjectIds = new LinkedHashSet<>();
+    private boolean structural;
+
+    public GraphChangeEvent objectCreated(String type, String objectId) {
+        objectCountDeltas.merge(type, 1L, Long::sum);
+        changedObjectIds.add(objectId);
+        return this;
+    }
+
+    public GraphChangeEvent objectsCreated(String type, long count) {
+        objectCountDeltas.merge(type, count, Long::sum);
+        return this;
+    }
+
+    public GraphChangeEvent objectUpdated(String objectId) {
+        changedObjectIds.add(objectId);
+        return this;
+    }
+
+    public GraphChangeEvent objectDeleted(String type, String objectId) {
+        objectCountDeltas.merge(type, -1L, Long::sum);
+        deletedObjectIds.add(objectId);
+        return this;
+    }
+
+    public GraphChangeEvent linkCreated(String sourceType, String linkType, String targetType, String linkId) {
+        linkCountDeltas.merge(new EdgeKey(sourceType, linkType, targetType), 1L, Long::sum);
+        if (linkId != null) {
+            changedLinkIds.add(linkId);
+        }
+        return this;
+    }
+
+    public GraphChangeEvent linkDeleted(String sourceType, String linkType, String targetType, String linkId) {
+        linkCountDeltas.merge(new EdgeKey(sourceType, linkType, targetType), -1L, Long::sum);
+        if (linkId != null) {
+            changedLinkIds.add(linkId);
+        }
+        return this;
+    }
+
+    public GraphChangeEvent linkUpdated(String linkId) {
+        changedLinkIds.add(linkId);
+        return this;
+    }
+
+    /**
+     * Records the endpoints of a created or deleted link, whose neighborhood has changed.
+     */
+    public GraphChangeEvent linkEndpoints(String sourceId, String targetId) {
+        relinkedObjectIds.add(sourceId);
+        relinkedObjectIds.add(targetId);
+        return this;
+    }
+
+    /**
+     * Marks a change that cannot be expressed as count deltas (e.g. an object changing type),
+     * so listeners should rebuild their derived state.
+     */
+    public GraphChangeEvent structural() {
+        this.structural = true;
+        return this;
+    }
+
+    public Map<String, Long> getObjectCountDeltas() {
+        return Collections.unmodifiableMap(objectCountDeltas);
+    }
+
+    public Map<EdgeKey, Long> getLinkCountDeltas() {
+        return Collections.unmodifiableMap(linkCountDeltas);
+    }
+
+    public Set<String> getChangedObjectIds() {
+        return Collections.unmodifiableSet(changedObjectIds);
+    }
+
+    public Set<String> getDeletedObjectIds() {
+        return Collections.unmodifiableSet(deletedObjectIds);
+    }
+
+    public Set<String> getChangedLinkIds() {
+        return Collections.unmodifiableSet(changedLinkIds);
+    }
+
+    public Set<String> getRelinkedObjectIds() {
+        return Collections.unmodifiableSet(relinkedObjectIds);
+    }
+
+    public boolean isStructural() {
+        return structural;
+    }
+}
@@ -0,0 +1,158 @@
+package com.digitaltwin.backend.extraction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho–Corasick automaton for finding many patterns in one pass over a text.
+ * Matching is case-insensitive character by character, so match offsets are
+ * offsets into the original text. Once built the automaton is immutable and
+ * can be searched from any number of threads.
+ */
+public final class AhoCorasick<T> {
+
+    @FunctionalInterface
+    public interface MatchHandler<T> {
+        void onMatch(int start, int end, T payload);
+    }
+
+    // Children of each node as sorted parallel arrays, searched with binary search
+    private final char[][] childKeys;
+    private final int[][] childNodes;
+    private final int[] fail;
+    // Nearest node along the fail chain that ends a pattern, or -1
+    private final int[] outputLink;
+    private final int[] depth;
+    private final List<List<T>> payloads;
+
+    private AhoCorasick(List<TreeMap<Character, Integer>> children, int[] depth, List<List<T>> payloads) {
+        int size = children.size();
+        this.childKeys = new char[size][];
+        this.childNodes = new int[size][];
+        for (int node = 0; node < size; node++) {
+            TreeMap<Character, Integer> edges = children.get(node);
+            childKeys[node] = new char[edges.size()];
+            childNodes[node] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                childKeys[node][i] = edge.getKey();
+                childNodes[node][i++] = edge.getValue();
+            }
+        }
+        this.depth = depth;
+        this.payloads = payloads;
+        this.fail = new int[size];
+        this.outputLink = new int[size];
+        Arrays.fill(outputLink, -1);
+        buildFailLinks();
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public int size() {
+        return fail.length;
+    }
+
+    /**
+     * Reports every occurrence of every pattern in the text, in order of end offset.
+     */
+    public void search(CharSequence text, MatchHandler<T> handler) {
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next;
+            while ((next = child(node, c)) < 0 && node != 0) {
+                node = fail[node];
+            }
+            node = Math.max(next, 0);
+
+            for (int match = payloads.get(node) != null ? node : outputLink[node]; match > 0; match = outputLink[match]) {
+                int start = i + 1 - depth[match];
+                for (T payload : payloads.get(match)) {
+                    handler.onMatch(start, i + 1, payload);
+                }
+            }
+        }
+    }
+
+    private int child(int node, char c) {
+        int index = Arrays.binarySearch(childKeys[node], c);
+        return index >= 0 ? childNodes[node][index] : -1;
+    }
+
+    private void buildFailLinks() {
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : childNodes[0]) {
+            fail[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < childKeys[node].length; i++) {
+                char c = childKeys[node][i];
+                int child = childNodes[node][i];
+                int f = fail[node];
+                int target;
+                while ((target = child(f, c)) < 0 && f != 0) {
+                    f = fail[f];
+                }
+                fail[child] = Math.max(target, 0);
+                int failNode = fail[child];
+                outputLink[child] = payloads.get(failNode) != null ? failNode : outputLink[failNode];
+                queue.add(child);
+            }
+        }
+    }
+
+    public static final class Builder<T> {
+
+        private final List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        private final List<Integer> depths = new ArrayList<>();
+        private final Map<Integer, List<T>> payloads = new HashMap<>();
+
+        private Builder() {
+            addNode(0);
+        }
+
+        public Builder<T> add(String pattern, T payload) {
+            if (pattern == null || pattern.isEmpty()) {
+                return this;
+            }
+            int node = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = Character.toLowerCase(pattern.charAt(i));
+                Integer next = children.get(node).get(c);
+                if (next == null) {
+                    next = addNode(i + 1);
+                    children.get(node).put(c, next);
+                }
+                node = next;
+            }
+            payloads.computeIfAbsent(node, n -> new ArrayList<>(1)).add(payload);
+            return this;
+        }
+
+        public AhoCorasick<T> build() {
+            int[] depth = depths.stream().mapToInt(Integer::intValue).toArray();
+            List<List<T>> nodePayloads = new ArrayList<>(children.size());
+            for (int node = 0; node < children.size(); node++) {
+                nodePayloads.add(payloads.get(node));
+            }
+            return new AhoCorasick<>(children, depth, nodePayloads);
+        }
+
+        private int addNode(int depth) {
+            children.add(new TreeMap<>());
+            depths.add(depth);
+            return children.size() - 1;
+        }
+    }
+}
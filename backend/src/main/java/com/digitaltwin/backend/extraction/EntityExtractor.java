@@ -0,0 +1,14 @@
+package com.digitaltwin.backend.extraction;
+
+import com.digitaltwin.backend.dto.ExtractedEntity;
+
+import java.util.List;
+
+/**
+ * Finds mentions of known objects in unstructured text. Implementations
+ * must be thread-safe; documents are extracted in parallel.
+ */
+public interface EntityExtractor {
+
+    List<ExtractedEntity> extract(String text);
+}
@@ -0,0 +1,153 @@
+package com.digitaltwin.backend.layout;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fruchterman–Reingold force-directed layout with Barnes–Hut approximated
+ * repulsion. Repulsive forces are computed in parallel on a fork/join pool;
+ * pinned nodes contribute forces but never move, which is what incremental
+ * updates use to refine a neighborhood without disturbing the rest.
+ */
+public class BarnesHutLayout {
+
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    private final double[] x;
+    private final double[] y;
+    private final boolean[] pinned;
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+
+    private double idealEdgeLength = 80;
+    private double theta = 0.8;
+    private double gravity = 0.02;
+
+    public BarnesHutLayout(double[] x, double[] y, boolean[] pinned, int[] edgeSources, int[] edgeTargets) {
+        if (x.length != y.length || x.length != pinned.length || edgeSources.length != edgeTargets.length) {
+            throw new IllegalArgumentException("Layout arrays must have matching lengths");
+        }
+        this.x = x;
+        this.y = y;
+        this.pinned = pinned;
+        this.edgeSources = edgeSources;
+        this.edgeTargets = edgeTargets;
+    }
+
+    public BarnesHutLayout idealEdgeLength(double idealEdgeLength) {
+        this.idealEdgeLength = idealEdgeLength;
+        return this;
+    }
+
+    public BarnesHutLayout theta(double theta) {
+        this.theta = theta;
+        return this;
+    }
+
+    public BarnesHutLayout gravity(double gravity) {
+        this.gravity = gravity;
+        return this;
+    }
+
+    /**
+     * Runs the given number of iterations, cooling the maximum displacement linearly.
+     */
+    public void run(int iterations, ForkJoinPool pool) {
+        int n = x.length;
+        if (n == 0 || iterations <= 0) {
+            return;
+        }
+        double k = idealEdgeLength;
+        double startTemperature = k * Math.max(1, Math.sqrt(n)) / 4;
+        double[] dispX = new double[n];
+        double[] dispY = new double[n];
+
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            double temperature = startTemperature * (1 - (double) iteration / iterations);
+            step(pool, k, temperature, dispX, dispY);
+        }
+    }
+
+    private void step(ForkJoinPool pool, double k, double temperature, double[] dispX, double[] dispY) {
+        int n = x.length;
+        QuadTree tree = QuadTree.build(x, y);
+        pool.invoke(new RepulsionTask(tree, 0, n, k * k, theta * theta, dispX, dispY));
+
+        // Attraction d²/k along every edge
+        for (int e = 0; e < edgeSources.length; e++) {
+            int s = edgeSources[e];
+            int t = edgeTargets[e];
+            double dx = x[s] - x[t];
+            double dy = y[s] - y[t];
+            double dist = Math.sqrt(dx * dx + dy * dy);
+            if (dist < 1e-9) {
+                continue;
+            }
+            double factor = dist / k;
+            dispX[s] -= dx * factor;
+            dispY[s] -= dy * factor;
+            dispX[t] += dx * factor;
+            dispY[t] += dy * factor;
+        }
+
+        for (int i = 0; i < n; i++) {
+            if (pinned[i]) {
+                continue;
+            }
+            // Weak pull towards the origin keeps disconnected components from drifting apart
+            dispX[i] -= x[i] * gravity;
+            dispY[i] -= y[i] * gravity;
+
+            double length = Math.sqrt(dispX[i] * dispX[i] + dispY[i] * dispY[i]);
+            if (length > 1e-9) {
+                double capped = Math.min(length, temperature);
+                x[i] += dispX[i] / length * capped;
+                y[i] += dispY[i] / length * capped;
+            }
+        }
+    }
+
+    // Only ever run on the local pool, never serialized
+    @SuppressWarnings("serial")
+    private final class RepulsionTask extends RecursiveAction {
+
+        private final QuadTree tree;
+        private final int from;
+        private final int to;
+        private final double kSquared;
+        private final double thetaSquared;
+        private final double[] dispX;
+        private final double[] dispY;
+
+        RepulsionTask(QuadTree tree, int from, int to, double kSquared, double thetaSquared,
+                      double[] dispX, double[] dispY) {
+            this.tree = tree;
+            this.from = from;
+            this.to = to;
+            this.kSquared = kSquared;
+            this.thetaSquared = thetaSquared;
+            this.dispX = dispX;
+            this.dispY = dispY;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                double[] force = new double[2];
+                for (int i = from; i < to; i++) {
+                    force[0] = 0;
+                    force[1] = 0;
+                    if (!pinned[i]) {
+                        tree.repulse(i, x, y, thetaSquared, kSquared, force);
+                    }
+                    dispX[i] = force[0];
+                    dispY[i] = force[1];
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RepulsionTask(tree, from, mid, kSquared, thetaSquared, dispX, dispY),
+                    new RepulsionTask(tree, mid, to, kSquared, thetaSquared, dispX, dispY));
+        }
+    }
+}
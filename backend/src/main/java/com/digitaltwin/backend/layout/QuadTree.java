@@ -0,0 +1,118 @@
+package com.digitaltwin.backend.layout;
+
+/**
+ * Barnes–Hut quadtree over node positions. Each cell keeps the aggregate mass
+ * and center of mass of the points inside it so distant groups of nodes can be
+ * treated as a single body when computing repulsion.
+ */
+final class QuadTree {
+
+    private static final int MAX_DEPTH = 48;
+
+    private final double centerX;
+    private final double centerY;
+    private final double halfSize;
+
+    private double sumX;
+    private double sumY;
+    private int mass;
+    private int point = -1;
+    private QuadTree[] children;
+
+    QuadTree(double centerX, double centerY, double halfSize) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.halfSize = halfSize;
+    }
+
+    static QuadTree build(double[] x, double[] y) {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < x.length; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        double halfSize = Math.max(maxX - minX, maxY - minY) / 2 + 1;
+        QuadTree root = new QuadTree((minX + maxX) / 2, (minY + maxY) / 2, halfSize);
+        for (int i = 0; i < x.length; i++) {
+            root.insert(i, x, y, 0);
+        }
+        return root;
+    }
+
+    private void insert(int i, double[] x, double[] y, int depth) {
+        sumX += x[i];
+        sumY += y[i];
+        mass++;
+
+        if (mass == 1) {
+            point = i;
+            return;
+        }
+        if (depth >= MAX_DEPTH) {
+            // Coincident points: keep them aggregated in this leaf
+            return;
+        }
+        if (children == null) {
+            children = new QuadTree[4];
+            if (point >= 0) {
+                int existing = point;
+                point = -1;
+                childFor(x[existing], y[existing]).insert(existing, x, y, depth + 1);
+            }
+        }
+        childFor(x[i], y[i]).insert(i, x, y, depth + 1);
+    }
+
+    private QuadTree childFor(double px, double py) {
+        int index = (px >= centerX ? 1 : 0) + (py >= centerY ? 2 : 0);
+        if (children[index] == null) {
+            double quarter = halfSize / 2;
+            children[index] = new QuadTree(
+                    centerX + ((index & 1) == 1 ? quarter : -quarter),
+                    centerY + ((index & 2) == 2 ? quarter : -quarter),
+                    quarter);
+        }
+        return children[index];
+    }
+
+    /**
+     * Accumulates the repulsive force on node {@code i} into {@code out[0..1]}.
+     */
+    void repulse(int i, double[] x, double[] y, double thetaSquared, double kSquared, double[] out) {
+        if (mass == 0 || (point == i && mass == 1)) {
+            return;
+        }
+        double comX = sumX / mass;
+        double comY = sumY / mass;
+        double dx = x[i] - comX;
+        double dy = y[i] - comY;
+        double distSquared = dx * dx + dy * dy;
+        double size = halfSize * 2;
+
+        if (children == null || size * size < thetaSquared * distSquared) {
+            if (distSquared < 0.01) {
+                // Depth-limited leaves keep their first point, so any leaf reaching here holds
+                // another node at i's position
+                if (children == null) {
+                    // i sits among coincident points; nudge it out deterministically
+                    out[0] += (i % 2 == 0 ? 1 : -1) * kSquared * 0.01;
+                    out[1] += ((i / 2) % 2 == 0 ? 1 : -1) * kSquared * 0.01;
+                }
+                return;
+            }
+            // Fruchterman–Reingold repulsion k²/d, applied along the unit vector
+            double factor = kSquared * mass / distSquared;
+            out[0] += dx * factor;
+            out[1] += dy * factor;
+            return;
+        }
+        for (QuadTree child : children) {
+            if (child != null) {
+                child.repulse(i, x, y, thetaSquared, kSquared, out);
+            }
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package com.digitaltwin.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.data.neo4j.core.schema.Id;
 import org.springframework.data.neo4j.core.schema.Node;
 import org.springframework.data.neo4j.core.schema.Property;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Node("Action")
 public class Action {
 
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     @Id
     private String id;
 
@@ -20,7 +27,18 @@ public class Action {
     private String objectId;
 
     @Property
-    private Map<String, Object> changes;
+    private String changesJson;
+
+    // Properties the action removed; only a ROLLBACK can remove properties
+    @Property
+    private List<String> unset;
+
+    // Position of this action in its object's history, starting at 1
+    @Property
+    private Long sequence;
+
+    @Property
+    private Long changeSeq;
 
     @Property
     private LocalDateTime timestamp;
@@ -28,6 +46,15 @@ public class Action {
     @Property
     private String user;
 
+    // Previous values of the changed properties, as {"set": {...}, "unset": [...]}; null when
+    // the object did not exist, so there is nothing to restore
+    @Property
+    private String inverseJson;
+
+    // Id of the ROLLBACK action that reverted this one
+    @Property
+    private String rolledBackBy;
+
     // Constructors, getters, setters
 
     public Action() {}
@@ -36,7 +63,7 @@ public class Action {
         this.id = id;
         this.type = type;
         this.objectId = objectId;
-        this.changes = changes;
+        setChanges(changes);
         this.timestamp = timestamp;
         this.user = user;
     }
@@ -66,11 +93,55 @@ public class Action {
     }
 
     public Map<String, Object> getChanges() {
-        return changes;
+        if (changesJson == null || changesJson.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            return objectMapper.readValue(changesJson, Map.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to parse changes JSON", e);
+        }
     }
 
     public void setChanges(Map<String, Object> changes) {
-        this.changes = changes;
+        if (changes == null) {
+            this.changesJson = null;
+        } else {
+            try {
+                this.changesJson = objectMapper.writeValueAsString(changes);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to serialize changes to JSON", e);
+            }
+        }
+    }
+
+    @JsonIgnore
+    public String getChangesJson() {
+        return changesJson;
+    }
+
+    public List<String> getUnset() {
+        return unset;
+    }
+
+    public void setUnset(List<String> unset) {
+        this.unset = unset;
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
     }
 
     public LocalDateTime getTimestamp() {
@@ -88,4 +159,21 @@ public class Action {
     public void setUser(String user) {
         this.user = user;
     }
+
+    @JsonIgnore
+    public String getInverseJson() {
+        return inverseJson;
+    }
+
+    public void setInverseJson(String inverseJson) {
+        this.inverseJson = inverseJson;
+    }
+
+    public String getRolledBackBy() {
+        return rolledBackBy;
+    }
+
+    public void setRolledBackBy(String rolledBackBy) {
+        this.rolledBackBy = rolledBackBy;
+    }
 }
@@ -0,0 +1,98 @@
+package com.digitaltwin.backend.model;
+
+import org.springframework.data.neo4j.core.schema.Id;
+import org.springframework.data.neo4j.core.schema.Node;
+import org.springframework.data.neo4j.core.schema.Property;
+
+import java.time.LocalDateTime;
+
+/**
+ * Applied position in a tailed change log. The offset is advanced in the
+ * same transaction as the changes it covers, so after a restart tailing
+ * resumes exactly after the last applied batch.
+ */
+@Node("ChangeLogCheckpoint")
+public class ChangeLogCheckpoint {
+
+    @Id
+    private String source;
+
+    @Property
+    private Long committedOffset = 0L;
+
+    @Property
+    private Long appliedEvents = 0L;
+
+    // Events folded into a later event on the same key within a batch
+    @Property
+    private Long coalescedEvents = 0L;
+
+    @Property
+    private Long failedEvents = 0L;
+
+    @Property
+    private LocalDateTime lastAppliedAt;
+
+    @Property
+    private String lastError;
+
+    // Constructors
+    public ChangeLogCheckpoint() {}
+
+    // Getters and Setters
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public Long getCommittedOffset() {
+        return committedOffset;
+    }
+
+    public void setCommittedOffset(Long committedOffset) {
+        this.committedOffset = committedOffset;
+    }
+
+    public Long getAppliedEvents() {
+        return appliedEvents;
+    }
+
+    public void setAppliedEvents(Long appliedEvents) {
+        this.appliedEvents = appliedEvents;
+    }
+
+    public Long getCoalescedEvents() {
+        return coalescedEvents;
+    }
+
+    public void setCoalescedEvents(Long coalescedEvents) {
+        this.coalescedEvents = coalescedEvents;
+    }
+
+    public Long getFailedEvents() {
+        return failedEvents;
+    }
+
+    public void setFailedEvents(Long failedEvents) {
+        this.failedEvents = failedEvents;
+    }
+
+    public LocalDateTime getLastAppliedAt() {
+        return lastAppliedAt;
+    }
+
+    public void setLastAppliedAt(LocalDateTime lastAppliedAt) {
+        this.lastAppliedAt = lastAppliedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
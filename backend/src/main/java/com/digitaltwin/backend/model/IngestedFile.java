@@ -0,0 +1,158 @@
+package com.digitaltwin.backend.model;
+
+import org.springframework.data.neo4j.core.schema.Id;
+import org.springframework.data.neo4j.core.schema.Node;
+import org.springframework.data.neo4j.core.schema.Property;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a file picked up from the watched ingestion directory. The
+ * offset is the end of the last committed chunk; a file whose size and
+ * modification time still match a completed entry is never read again.
+ */
+@Node("IngestedFile")
+public class IngestedFile {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private String path;
+
+    @Property
+    private String objectType;
+
+    @Property
+    private String status; // IN_PROGRESS, COMPLETED, FAILED
+
+    @Property
+    private Long size;
+
+    @Property
+    private Long lastModified;
+
+    @Property
+    private Long committedOffset = 0L;
+
+    @Property
+    private Long successfulRecords = 0L;
+
+    @Property
+    private Long failedRecords = 0L;
+
+    @Property
+    private LocalDateTime startedAt;
+
+    @Property
+    private LocalDateTime completedAt;
+
+    @Property
+    private String error;
+
+    // Constructors
+    public IngestedFile() {}
+
+    public IngestedFile(String path, String objectType, long size, long lastModified) {
+        this.path = path;
+        this.objectType = objectType;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.status = IN_PROGRESS;
+        this.startedAt = LocalDateTime.now();
+    }
+
+    public boolean isSameVersion(long size, long lastModified) {
+        return this.size != null && this.size == size && this.lastModified != null && this.lastModified == lastModified;
+    }
+
+    // Getters and Setters
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getObjectType() {
+        return objectType;
+    }
+
+    public void setObjectType(String objectType) {
+        this.objectType = objectType;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public Long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public Long getCommittedOffset() {
+        return committedOffset;
+    }
+
+    public void setCommittedOffset(Long committedOffset) {
+        this.committedOffset = committedOffset;
+    }
+
+    public Long getSuccessfulRecords() {
+        return successfulRecords;
+    }
+
+    public void setSuccessfulRecords(Long successfulRecords) {
+        this.successfulRecords = successfulRecords;
+    }
+
+    public Long getFailedRecords() {
+        return failedRecords;
+    }
+
+    public void setFailedRecords(Long failedRecords) {
+        this.failedRecords = failedRecords;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,277 @@
+package com.digitaltwin.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.neo4j.core.schema.Id;
+import org.springframework.data.neo4j.core.schema.Node;
+import org.springframework.data.neo4j.core.schema.Property;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An asynchronous ingestion of a spooled NDJSON upload. Progress is
+ * checkpointed as the byte offset of the last committed chunk, so an
+ * interrupted job resumes from there instead of starting over.
+ */
+@Node("IngestionJob")
+public class IngestionJob {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    @Id
+    private String id;
+
+    @Property
+    private String objectType;
+
+    @Property
+    private String submittedBy;
+
+    @Property
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+
+    @Property
+    private String spoolPath;
+
+    @Property
+    private Long totalBytes;
+
+    // Checkpoint: everything before this offset has been committed
+    @Property
+    private Long bytesProcessed = 0L;
+
+    // Length of the written-ids file at the checkpoint, so a resumed run can drop ids past it
+    @Property
+    private Long idsBytes = 0L;
+
+    @Property
+    private Long recordsProcessed = 0L;
+
+    @Property
+    private Long successfulRecords = 0L;
+
+    @Property
+    private Long unchangedRecords = 0L;
+
+    @Property
+    private Long failedRecords = 0L;
+
+    @Property
+    private List<String> errors = new ArrayList<>();
+
+    @Property
+    private LocalDateTime createdAt;
+
+    @Property
+    private LocalDateTime startedAt;
+
+    @Property
+    private LocalDateTime finishedAt;
+
+    // Progress when the current run started, for throughput after a resume
+    @Property
+    private Long bytesAtStart = 0L;
+
+    @Property
+    private Long recordsAtStart = 0L;
+
+    // Constructors
+    public IngestionJob() {}
+
+    public IngestionJob(String id, String objectType, String submittedBy, String spoolPath, long totalBytes) {
+        this.id = id;
+        this.objectType = objectType;
+        this.submittedBy = submittedBy;
+        this.spoolPath = spoolPath;
+        this.totalBytes = totalBytes;
+        this.status = QUEUED;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public boolean isFinished() {
+        return COMPLETED.equals(status) || FAILED.equals(status) || CANCELLED.equals(status);
+    }
+
+    /**
+     * Records per second in the current run.
+     */
+    public double getRecordsPerSecond() {
+        double seconds = runningSeconds();
+        return seconds > 0 ? (recordsProcessed - recordsAtStart) / seconds : 0;
+    }
+
+    /**
+     * Estimated seconds until the remaining bytes are processed at the current rate.
+     */
+    public Long getEtaSeconds() {
+        double seconds = runningSeconds();
+        long bytesThisRun = bytesProcessed - bytesAtStart;
+        if (!RUNNING.equals(status) || seconds <= 0 || bytesThisRun <= 0) {
+            return null;
+        }
+        return Math.round((totalBytes - bytesProcessed) / (bytesThisRun / seconds));
+    }
+
+    private double runningSeconds() {
+        if (startedAt == null) {
+            return 0;
+        }
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        return Duration.between(startedAt, end).toMillis() / 1000.0;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getObjectType() {
+        return objectType;
+    }
+
+    public void setObjectType(String objectType) {
+        this.objectType = objectType;
+    }
+
+    public String getSubmittedBy() {
+        return submittedBy;
+    }
+
+    public void setSubmittedBy(String submittedBy) {
+        this.submittedBy = submittedBy;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    @JsonIgnore
+    public String getSpoolPath() {
+        return spoolPath;
+    }
+
+    public void setSpoolPath(String spoolPath) {
+        this.spoolPath = spoolPath;
+    }
+
+    public Long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void setTotalBytes(Long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public Long getBytesProcessed() {
+        return bytesProcessed;
+    }
+
+    public void setBytesProcessed(Long bytesProcessed) {
+        this.bytesProcessed = bytesProcessed;
+    }
+
+    public Long getRecordsProcessed() {
+        return recordsProcessed;
+    }
+
+    public void setRecordsProcessed(Long recordsProcessed) {
+        this.recordsProcessed = recordsProcessed;
+    }
+
+    public Long getSuccessfulRecords() {
+        return successfulRecords;
+    }
+
+    public void setSuccessfulRecords(Long successfulRecords) {
+        this.successfulRecords = successfulRecords;
+    }
+
+    public Long getUnchangedRecords() {
+        return unchangedRecords;
+    }
+
+    public void setUnchangedRecords(Long unchangedRecords) {
+        this.unchangedRecords = unchangedRecords;
+    }
+
+    public Long getFailedRecords() {
+        return failedRecords;
+    }
+
+    public void setFailedRecords(Long failedRecords) {
+        this.failedRecords = failedRecords;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    @JsonIgnore
+    public Long getIdsBytes() {
+        return idsBytes;
+    }
+
+    public void setIdsBytes(Long idsBytes) {
+        this.idsBytes = idsBytes;
+    }
+
+    @JsonIgnore
+    public Long getBytesAtStart() {
+        return bytesAtStart;
+    }
+
+    public void setBytesAtStart(Long bytesAtStart) {
+        this.bytesAtStart = bytesAtStart;
+    }
+
+    @JsonIgnore
+    public Long getRecordsAtStart() {
+        return recordsAtStart;
+    }
+
+    public void setRecordsAtStart(Long recordsAtStart) {
+        this.recordsAtStart = recordsAtStart;
+    }
+}
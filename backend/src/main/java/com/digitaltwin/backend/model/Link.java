@@ -32,6 +32,9 @@ public class Link {
     @Property
     private String propertiesJson;
 
+    @Property
+    private Long changeSeq;
+
     // Constructors, getters, setters
 
     public Link() {}
@@ -84,6 +87,14 @@ public class Link {
         this.target = target;
     }
 
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
     public Map<String, Object> getProperties() {
         if (propertiesJson == null || propertiesJson.isEmpty()) {
             return new HashMap<>();
@@ -1,12 +1,15 @@
 package com.digitaltwin.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.data.neo4j.core.schema.Id;
 import org.springframework.data.neo4j.core.schema.Node;
 import org.springframework.data.neo4j.core.schema.Property;
 import org.springframework.data.neo4j.core.schema.Relationship;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,7 +17,9 @@ import java.util.Map;
 @Node("Object")
 public class ObjectEntity {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    // Sorted keys make the stored JSON canonical, so equal properties hash equally
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
 
     @Id
     private String id;
@@ -25,6 +30,36 @@ public class ObjectEntity {
     @Property
     private String propertiesJson;
 
+    // Property values without their keys, which is what the full-text index covers
+    @Property
+    private String searchText;
+
+    // Precomputed layout coordinates, maintained by LayoutService
+    @Property
+    private Double x;
+
+    @Property
+    private Double y;
+
+    // Change sequence of the write that created / last changed this object
+    @Property
+    private Long createdSeq;
+
+    @Property
+    private Long changeSeq;
+
+    // Set for types ingested with a natural-key spec; identifies the record in its source feed
+    @Property
+    private String naturalKey;
+
+    // SHA-256 of the ingested properties, so unchanged records can be skipped on re-ingest
+    @Property
+    private String contentHash;
+
+    // Bumped by every applied action; actions only commit against the version they read
+    @Property
+    private Long version;
+
     @Relationship(type = "LINKS_TO", direction = Relationship.Direction.OUTGOING)
     private List<Link> outgoingLinks;
 
@@ -69,6 +104,7 @@ public class ObjectEntity {
     }
 
     public void setProperties(Map<String, Object> properties) {
+        this.searchText = searchText(properties);
         if (properties == null) {
             this.propertiesJson = null;
         } else {
@@ -80,6 +116,99 @@ public class ObjectEntity {
         }
     }
 
+    @JsonIgnore
+    public String getPropertiesJson() {
+        return propertiesJson;
+    }
+
+    @JsonIgnore
+    public String getSearchText() {
+        return searchText;
+    }
+
+    /**
+     * The values of {@code properties}, nested ones included, separated by spaces.
+     */
+    public static String searchText(Map<String, Object> properties) {
+        if (properties == null) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        appendValues(text, properties.values());
+        return text.toString();
+    }
+
+    private static void appendValues(StringBuilder text, Collection<?> values) {
+        for (Object value : values) {
+            if (value instanceof Map<?, ?> map) {
+                appendValues(text, map.values());
+            } else if (value instanceof Collection<?> collection) {
+                appendValues(text, collection);
+            } else if (value != null) {
+                if (!text.isEmpty()) {
+                    text.append(' ');
+                }
+                text.append(value);
+            }
+        }
+    }
+
+    public Double getX() {
+        return x;
+    }
+
+    public void setX(Double x) {
+        this.x = x;
+    }
+
+    public Double getY() {
+        return y;
+    }
+
+    public void setY(Double y) {
+        this.y = y;
+    }
+
+    public Long getCreatedSeq() {
+        return createdSeq;
+    }
+
+    public void setCreatedSeq(Long createdSeq) {
+        this.createdSeq = createdSeq;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public String getNaturalKey() {
+        return naturalKey;
+    }
+
+    public void setNaturalKey(String naturalKey) {
+        this.naturalKey = naturalKey;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public List<Link> getOutgoingLinks() {
         return outgoingLinks;
     }
@@ -0,0 +1,115 @@
+package com.digitaltwin.backend.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.neo4j.core.schema.Id;
+import org.springframework.data.neo4j.core.schema.Node;
+import org.springframework.data.neo4j.core.schema.Property;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * State of an object after its first {@code sequence} actions were applied.
+ * Sequence 0 is the state before the first action.
+ */
+@Node("ObjectSnapshot")
+public class ObjectSnapshot {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Id
+    private String id;
+
+    @Property
+    private String objectId;
+
+    @Property
+    private String type;
+
+    @Property
+    private String propertiesJson;
+
+    @Property
+    private Long sequence;
+
+    @Property
+    private LocalDateTime timestamp;
+
+    // Constructors, getters, setters
+
+    public ObjectSnapshot() {}
+
+    public ObjectSnapshot(String id, ObjectEntity object, long sequence, LocalDateTime timestamp) {
+        this.id = id;
+        this.objectId = object.getId();
+        this.type = object.getType();
+        setProperties(object.getProperties());
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getObjectId() {
+        return objectId;
+    }
+
+    public void setObjectId(String objectId) {
+        this.objectId = objectId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Map<String, Object> getProperties() {
+        if (propertiesJson == null || propertiesJson.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            return objectMapper.readValue(propertiesJson, Map.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to parse properties JSON", e);
+        }
+    }
+
+    public void setProperties(Map<String, Object> properties) {
+        if (properties == null) {
+            this.propertiesJson = null;
+        } else {
+            try {
+                this.propertiesJson = objectMapper.writeValueAsString(properties);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to serialize properties to JSON", e);
+            }
+        }
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,240 @@
+package com.digitaltwin.backend.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * One stage of a processing pipeline: a bounded input queue drained by a
+ * fixed number of worker threads. Workers take up to {@code batchSize} items
+ * at a time and emit their results into the next stage's queue, blocking when
+ * it is full, so a slow stage throttles everything upstream of it.
+ *
+ * End of input travels down the pipeline as a marker: the last worker of a
+ * stage to see it completes the stage and passes it on.
+ */
+public class PipelineStage<I, O> {
+
+    private static final Object END = new Object();
+
+    @FunctionalInterface
+    public interface Processor<I, O> {
+        void process(List<I> items, Consumer<O> emit) throws Exception;
+    }
+
+    private final String name;
+    private final int workers;
+    private final int batchSize;
+    private final BlockingQueue<Object> queue;
+    private final Processor<I, O> processor;
+    private final BiConsumer<List<I>, Exception> onError;
+    private final AtomicInteger runningWorkers;
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private final AtomicLong itemsIn = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+
+    private final List<Thread> threads = new ArrayList<>();
+    private PipelineStage<O, ?> next;
+    private volatile long startedAt;
+    private volatile boolean aborted;
+
+    public PipelineStage(String name, int workers, int batchSize, int queueCapacity,
+                         Processor<I, O> processor, BiConsumer<List<I>, Exception> onError) {
+        this.name = name;
+        this.workers = Math.max(workers, 1);
+        this.batchSize = Math.max(batchSize, 1);
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        this.processor = processor;
+        this.onError = onError;
+        this.runningWorkers = new AtomicInteger(this.workers);
+    }
+
+    /**
+     * Connects this stage's output to the next stage and returns that stage.
+     */
+    public <R> PipelineStage<O, R> then(PipelineStage<O, R> next) {
+        this.next = next;
+        return next;
+    }
+
+    public void start() {
+        startedAt = System.nanoTime();
+        for (int i = 1; i <= workers; i++) {
+            Thread thread = new Thread(this::work, "pipeline-" + name + "-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Hands an item to this stage, blocking while its queue is full.
+     */
+    public void put(I item) throws InterruptedException {
+        queue.put(item);
+    }
+
+    /**
+     * Signals that no more items will be put.
+     */
+    public void finish() throws InterruptedException {
+        queue.put(END);
+    }
+
+    public void awaitCompletion() throws InterruptedException {
+        completed.await();
+    }
+
+    /**
+     * Stops the workers without waiting for the end marker, dropping whatever is still
+     * queued. For when the producer fails and {@link #finish} may never be called.
+     */
+    public void abort() {
+        aborted = true;
+        threads.forEach(Thread::interrupt);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void work() {
+        List<Object> drained = new ArrayList<>(batchSize);
+        List<I> batch = new ArrayList<>(batchSize);
+        try {
+            boolean ended = false;
+            // Checked as well as the interrupt, which a processor may swallow
+            while (!ended && !aborted) {
+                drained.clear();
+                drained.add(queue.take());
+                queue.drainTo(drained, batchSize - 1);
+
+                batch.clear();
+                for (Object item : drained) {
+                    if (item == END) {
+                        ended = true;
+                    } else {
+                        batch.add((I) item);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    process(batch);
+                }
+            }
+            if (!aborted) {
+                // Leave the marker for the sibling workers
+                queue.put(END);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (runningWorkers.decrementAndGet() == 0) {
+                completeStage();
+            }
+        }
+    }
+
+    private void completeStage() {
+        try {
+            if (next != null && !aborted) {
+                next.finish();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            completed.countDown();
+        }
+    }
+
+    private void process(List<I> batch) throws InterruptedException {
+        long start = System.nanoTime();
+        itemsIn.addAndGet(batch.size());
+        try {
+            processor.process(batch, this::emit);
+        } catch (PipelineInterruptedException e) {
+            throw e.getCause();
+        } catch (Exception e) {
+            onError.accept(batch, e);
+        } finally {
+            busyNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private void emit(O item) {
+        if (next == null) {
+            return;
+        }
+        try {
+            next.put(item);
+        } catch (InterruptedException e) {
+            throw new PipelineInterruptedException(e);
+        }
+    }
+
+    public StageMetrics getMetrics() {
+        double elapsedSeconds = startedAt == 0 ? 0 : (System.nanoTime() - startedAt) / 1e9;
+        StageMetrics metrics = new StageMetrics();
+        metrics.setName(name);
+        metrics.setWorkers(workers);
+        metrics.setQueueDepth(queue.size());
+        metrics.setQueueCapacity(queue.size() + queue.remainingCapacity());
+        metrics.setItemsProcessed(itemsIn.get());
+        metrics.setItemsPerSecond(elapsedSeconds > 0 ? itemsIn.get() / elapsedSeconds : 0);
+        // Share of the workers' wall time spent processing rather than waiting for input
+        metrics.setUtilization(elapsedSeconds > 0 ? busyNanos.get() / 1e9 / (elapsedSeconds * workers) : 0);
+        metrics.setCompleted(completed.getCount() == 0);
+        return metrics;
+    }
+
+    private static class PipelineInterruptedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        PipelineInterruptedException(InterruptedException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized InterruptedException getCause() {
+            return (InterruptedException) super.getCause();
+        }
+    }
+
+    public static class StageMetrics {
+        private String name;
+        private int workers;
+        private int queueDepth;
+        private int queueCapacity;
+        private long itemsProcessed;
+        private double itemsPerSecond;
+        private double utilization;
+        private boolean completed;
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public int getWorkers() { return workers; }
+        public void setWorkers(int workers) { this.workers = workers; }
+
+        public int getQueueDepth() { return queueDepth; }
+        public void setQueueDepth(int queueDepth) { this.queueDepth = queueDepth; }
+
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+
+        public long getItemsProcessed() { return itemsProcessed; }
+        public void setItemsProcessed(long itemsProcessed) { this.itemsProcessed = itemsProcessed; }
+
+        public double getItemsPerSecond() { return itemsPerSecond; }
+        public void setItemsPerSecond(double itemsPerSecond) { this.itemsPerSecond = itemsPerSecond; }
+
+        public double getUtilization() { return utilization; }
+        public void setUtilization(double utilization) { this.utilization = utilization; }
+
+        public boolean isCompleted() { return completed; }
+        public void setCompleted(boolean completed) { this.completed = completed; }
+    }
+}
@@ -0,0 +1,63 @@
+package com.digitaltwin.backend.profiling;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-saving top-k sketch (Metwally et al.). It tracks at most
+ * {@code capacity} values; when a new value arrives and the table is full,
+ * the value with the smallest count is replaced and the newcomer inherits
+ * that count as its possible overestimate. Any value occurring more than
+ * n / capacity times is guaranteed to be tracked. Not thread-safe.
+ */
+public final class SpaceSaving {
+
+    public record Entry(String value, long count, long error) {}
+
+    private static final class Counter {
+        long count;
+        long error;
+    }
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = Math.max(capacity, 1);
+        this.counters = new HashMap<>(this.capacity * 2);
+    }
+
+    public void add(String value) {
+        Counter counter = counters.get(value);
+        if (counter == null) {
+            if (counters.size() < capacity) {
+                counter = new Counter();
+            } else {
+                // A linear scan is cheaper than maintaining an order for the small capacities used here
+                Map.Entry<String, Counter> min = null;
+                for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+                    if (min == null || entry.getValue().count < min.getValue().count) {
+                        min = entry;
+                    }
+                }
+                counter = counters.remove(min.getKey());
+                counter.error = counter.count;
+            }
+            counters.put(value, counter);
+        }
+        counter.count++;
+    }
+
+    /**
+     * The {@code k} values with the highest counts, highest first.
+     */
+    public List<Entry> top(int k) {
+        List<Entry> entries = new ArrayList<>(counters.size());
+        counters.forEach((value, counter) -> entries.add(new Entry(value, counter.count, counter.error)));
+        entries.sort(Comparator.comparingLong(Entry::count).reversed());
+        return entries.subList(0, Math.min(k, entries.size()));
+    }
+}
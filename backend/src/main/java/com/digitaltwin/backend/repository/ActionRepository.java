@@ -2,6 +2,7 @@ package com.digitaltwin.backend.repository;
 
 import com.digitaltwin.backend.model.Action;
 import org.springframework.data.neo4j.repository.Neo4jRepository;
+import org.springframework.data.neo4j.repository.query.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +15,11 @@ public interface ActionRepository extends Neo4jRepository<Action, String> {
     List<Action> findByType(String type);
 
     List<Action> findByUser(String user);
+
+    // Compacted objects keep a snapshot at the newest compacted sequence instead of the actions
+    @Query("OPTIONAL MATCH (a:Action {objectId: $objectId}) WITH coalesce(max(a.sequence), 0) AS latestAction " +
+            "OPTIONAL MATCH (s:ObjectSnapshot {objectId: $objectId}) " +
+            "WITH latestAction, coalesce(max(s.sequence), 0) AS latestSnapshot " +
+            "RETURN CASE WHEN latestAction > latestSnapshot THEN latestAction ELSE latestSnapshot END")
+    long findLatestSequence(String objectId);
 }
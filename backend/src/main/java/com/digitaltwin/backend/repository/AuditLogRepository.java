@@ -31,6 +31,12 @@ public interface AuditLogRepository extends Neo4jRepository<AuditLog, Long> {
     @Query("MATCH (a:AuditLog) WHERE a.status = 'FAILURE' OR a.status = 'ERROR' RETURN a ORDER BY a.timestamp DESC")
     List<AuditLog> findFailedActions();
 
+    @Query("MATCH (a:AuditLog) WHERE a.status = 'FAILURE' OR a.status = 'ERROR' RETURN count(a)")
+    long countFailedActions();
+
+    @Query("MATCH (a:AuditLog) WHERE a.action = $action AND a.timestamp >= $since RETURN count(a)")
+    long countByActionSince(String action, LocalDateTime since);
+
     @Query("MATCH (a:AuditLog) WHERE a.ipAddress = $ipAddress RETURN a ORDER BY a.timestamp DESC")
     List<AuditLog> findByIpAddress(String ipAddress);
 }
\ No newline at end of file
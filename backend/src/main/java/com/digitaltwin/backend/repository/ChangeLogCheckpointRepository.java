@@ -0,0 +1,9 @@
+package com.digitaltwin.backend.repository;
+
+import com.digitaltwin.backend.model.ChangeLogCheckpoint;
+import org.springframework.data.neo4j.repository.Neo4jRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChangeLogCheckpointRepository extends Neo4jRepository<ChangeLogCheckpoint, String> {
+}
@@ -0,0 +1,9 @@
+package com.digitaltwin.backend.repository;
+
+import com.digitaltwin.backend.model.IngestedFile;
+import org.springframework.data.neo4j.repository.Neo4jRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IngestedFileRepository extends Neo4jRepository<IngestedFile, String> {
+}
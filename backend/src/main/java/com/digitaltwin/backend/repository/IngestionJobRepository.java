@@ -0,0 +1,13 @@
+package com.digitaltwin.backend.repository;
+
+import com.digitaltwin.backend.model.IngestionJob;
+import org.springframework.data.neo4j.repository.Neo4jRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface IngestionJobRepository extends Neo4jRepository<IngestionJob, String> {
+
+    List<IngestionJob> findByStatusIn(List<String> statuses);
+}
@@ -1,7 +1,6 @@
 package com.digitaltwin.backend.repository;
 
 import com.digitaltwin.backend.model.Link;
-import com.digitaltwin.backend.model.ObjectEntity;
 import org.springframework.data.neo4j.repository.Neo4jRepository;
 import org.springframework.data.neo4j.repository.query.Query;
 import org.springframework.stereotype.Repository;
@@ -14,15 +13,27 @@ public interface LinkRepository extends Neo4jRepository<Link, Long> {
     @Query("MATCH (source:Object)-[r:LINKS_TO]->(target:Object) RETURN r, source, target")
     List<Link> findAllLinks();
 
-    @Query("MATCH (source:Object)-[r:LINKS_TO]->(target:Object) WHERE r.type = $type RETURN r, source, target")
+    @Query("MATCH (source:Object)-[r:LINKS_TO {type: $type}]->(target:Object) RETURN r, source, target")
     List<Link> findLinksByType(String type);
 
-    @Query("MATCH (source:Object)-[r:LINKS_TO]->(target:Object) WHERE elementId(source) = $sourceId RETURN r, source, target")
+    @Query("MATCH (source:Object {id: $sourceId})-[r:LINKS_TO]->(target:Object) RETURN r, source, target")
     List<Link> findLinksBySourceId(String sourceId);
 
-    @Query("MATCH (source:Object)-[r:LINKS_TO]->(target:Object) WHERE elementId(target) = $targetId RETURN r, source, target")
+    @Query("MATCH (source:Object)-[r:LINKS_TO]->(target:Object {id: $targetId}) RETURN r, source, target")
     List<Link> findLinksByTargetId(String targetId);
 
-    @Query("MATCH (source:Object)-[r:LINKS_TO]->(target:Object) WHERE elementId(r) = $linkId RETURN r, source, target")
+    @Query("MATCH (source:Object)-[r:LINKS_TO {id: $linkId}]->(target:Object) RETURN r, source, target")
     Link findLinkById(String linkId);
+
+    @Query("MATCH (source:Object {type: $type})-[r:LINKS_TO]->(target:Object {type: $type}) " +
+           "WHERE source.id IN $objectIds AND target.id IN $objectIds RETURN r, source, target")
+    List<Link> findLinksAmong(String type, List<String> objectIds);
+
+    @Query("MATCH (source:Object {id: $sourceId}), (target:Object {id: $targetId}) " +
+           "CREATE (source)-[r:LINKS_TO {id: $id, type: $type, propertiesJson: $propertiesJson, changeSeq: $changeSeq}]->(target) " +
+           "RETURN r, source, target")
+    Link createLink(String id, String type, String sourceId, String targetId, String propertiesJson, Long changeSeq);
+
+    @Query("MATCH (source:Object)-[r:LINKS_TO]->(target:Object) WHERE r.id IN $linkIds RETURN r, source, target")
+    List<Link> findLinksByIds(List<String> linkIds);
 }
@@ -13,21 +13,27 @@ public interface ObjectRepository extends Neo4jRepository<ObjectEntity, String>
 
     List<ObjectEntity> findByType(String type);
 
+    @Query("MATCH (o:Object) WHERE o.id IN $ids RETURN o")
+    List<ObjectEntity> findByIds(List<String> ids);
+
+    @Query("MATCH (o:Object {type: $type}) RETURN o LIMIT $limit")
+    List<ObjectEntity> findByTypeLimited(String type, int limit);
+
     @Query("MATCH (o:Object) WHERE o.properties[$key] = $value RETURN o")
     List<ObjectEntity> findByPropertiesContaining(String key, Object value);
 
-    @Query("MATCH (o:Object)-[r:LINKS_TO]->(target:Object) WHERE elementId(o) = $id RETURN o, collect(r), collect(target)")
+    @Query("MATCH (o:Object {id: $id}) OPTIONAL MATCH (o)-[r:LINKS_TO]->(target:Object) RETURN o, collect(r), collect(target)")
     Optional<ObjectEntity> findByIdWithRelationships(String id);
 
-    @Query("MATCH (o:Object)-[r:LINKS_TO*1..3]-(connected:Object) WHERE elementId(o) = $id RETURN DISTINCT connected")
+    @Query("MATCH (o:Object {id: $id})-[r:LINKS_TO*1..3]-(connected:Object) RETURN DISTINCT connected")
     List<ObjectEntity> findConnectedObjects(String id, int depth);
 
-    @Query("MATCH (o:Object)-[r:LINKS_TO]-(connected:Object) WHERE elementId(o) = $id AND r.type = $linkType RETURN connected")
+    @Query("MATCH (o:Object {id: $id})-[r:LINKS_TO {type: $linkType}]-(connected:Object) RETURN connected")
     List<ObjectEntity> findConnectedObjectsByLinkType(String id, String linkType);
 
     @Query("MATCH (o:Object) OPTIONAL MATCH (o)-[r:LINKS_TO]->(target:Object) RETURN o, collect(r), collect(target)")
     List<ObjectEntity> findAllWithRelationships();
 
-    @Query("MATCH (o:Object) WHERE o.type = $type OPTIONAL MATCH (o)-[r:LINKS_TO]->(target:Object) RETURN o, collect(r), collect(target)")
+    @Query("MATCH (o:Object {type: $type}) OPTIONAL MATCH (o)-[r:LINKS_TO]->(target:Object) RETURN o, collect(r), collect(target)")
     List<ObjectEntity> findByTypeWithRelationships(String type);
 }
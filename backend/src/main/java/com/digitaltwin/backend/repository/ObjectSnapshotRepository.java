@@ -0,0 +1,13 @@
+package com.digitaltwin.backend.repository;
+
+import com.digitaltwin.backend.model.ObjectSnapshot;
+import org.springframework.data.neo4j.repository.Neo4jRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ObjectSnapshotRepository extends Neo4jRepository<ObjectSnapshot, String> {
+
+    List<ObjectSnapshot> findByObjectId(String objectId);
+}
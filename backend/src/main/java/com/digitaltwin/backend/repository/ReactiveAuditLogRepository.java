@@ -0,0 +1,16 @@
+package com.digitaltwin.backend.repository;
+
+import com.digitaltwin.backend.model.AuditLog;
+import org.springframework.data.neo4j.repository.ReactiveNeo4jRepository;
+import org.springframework.data.neo4j.repository.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ReactiveAuditLogRepository extends ReactiveNeo4jRepository<AuditLog, Long> {
+
+    @Query("MATCH (a:AuditLog) WHERE a.timestamp >= $startDate AND a.timestamp <= $endDate RETURN a ORDER BY a.timestamp DESC")
+    Flux<AuditLog> streamByTimestampBetween(LocalDateTime startDate, LocalDateTime endDate);
+}
@@ -0,0 +1,14 @@
+package com.digitaltwin.backend.repository;
+
+import com.digitaltwin.backend.model.Link;
+import org.springframework.data.neo4j.repository.ReactiveNeo4jRepository;
+import org.springframework.data.neo4j.repository.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveLinkRepository extends ReactiveNeo4jRepository<Link, Long> {
+
+    @Query("MATCH (source:Object)-[r:LINKS_TO {type: $type}]->(target:Object) RETURN r, source, target")
+    Flux<Link> streamByType(String type);
+}
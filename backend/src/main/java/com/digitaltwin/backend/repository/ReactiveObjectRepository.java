@@ -0,0 +1,14 @@
+package com.digitaltwin.backend.repository;
+
+import com.digitaltwin.backend.model.ObjectEntity;
+import org.springframework.data.neo4j.repository.ReactiveNeo4jRepository;
+import org.springframework.data.neo4j.repository.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveObjectRepository extends ReactiveNeo4jRepository<ObjectEntity, String> {
+
+    @Query("MATCH (o:Object {type: $type}) RETURN o")
+    Flux<ObjectEntity> streamByType(String type);
+}
@@ -0,0 +1,147 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.dto.ActionRequest;
+import com.digitaltwin.backend.model.Action;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects actions submitted concurrently by many callers and applies them in
+ * batches through {@link ActionService#applyActions}, so a burst of small actions
+ * costs one write per batch instead of one per action.
+ *
+ * A single worker drains the queue and applies one batch at a time, so actions on
+ * the same object are applied in the order they were submitted. After taking the
+ * first action the worker waits up to {@code actions.batch.linger-ms} for more to
+ * arrive; a full queue blocks submitters until the worker catches up.
+ */
+@Service
+public class ActionBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActionBatcher.class);
+
+    private record Pending(ActionRequest request, CompletableFuture<Action> result) {}
+
+    @Autowired
+    private ActionService actionService;
+
+    @Autowired
+    private ActionTypeRegistry actionTypeRegistry;
+
+    @Value("${actions.batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${actions.batch.linger-ms:2}")
+    private long lingerMs;
+
+    @Value("${actions.batch.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<Pending> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        running = true;
+        worker = new Thread(this::work, "action-batcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(pending -> pending.result().completeExceptionally(
+                new IllegalStateException("Shutting down; action was not applied")));
+    }
+
+    /**
+     * Queues an action. The future completes with the recorded action once its batch has
+     * committed, or exceptionally with {@link IllegalArgumentException} if its type's rules
+     * rejected it or {@link OptimisticLockingFailureException} if its object kept changing.
+     */
+    public CompletableFuture<Action> submit(ActionRequest request) throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("Action batcher is shut down");
+        }
+        // Rejected up front, so a bad action never waits for a batch
+        String violation = actionTypeRegistry.validate(request.getType(), request.getChanges());
+        if (violation != null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(violation));
+        }
+        Pending pending = new Pending(request, new CompletableFuture<>());
+        queue.put(pending);
+        return pending.result();
+    }
+
+    private void work() {
+        List<Pending> batch = new ArrayList<>();
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < maxBatchSize) {
+                    // Whatever is already queued joins the batch without waiting
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                batch.forEach(pending -> pending.result().completeExceptionally(
+                        new IllegalStateException("Shutting down; action was not applied")));
+                return;
+            }
+            apply(batch);
+            batch.clear();
+        }
+    }
+
+    private void apply(List<Pending> batch) {
+        try {
+            List<ActionRequest> requests = batch.stream().map(Pending::request).toList();
+            ActionService.BatchResult result = actionService.applyActions(requests);
+            Map<Integer, String> rejections = new HashMap<>();
+            result.getRejections().forEach(rejection -> rejections.put(rejection.getIndex(), rejection.getReason()));
+            for (int i = 0; i < batch.size(); i++) {
+                Action action = result.getActions().get(i);
+                if (action != null) {
+                    batch.get(i).result().complete(action);
+                } else if (rejections.containsKey(i)) {
+                    batch.get(i).result().completeExceptionally(new IllegalArgumentException(rejections.get(i)));
+                } else {
+                    batch.get(i).result().completeExceptionally(new OptimisticLockingFailureException(
+                            "Object " + requests.get(i).getObjectId() + " kept changing; action was not applied"));
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Applying a batch of {} actions failed", batch.size(), e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.digitaltwin.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the action log proportional to recent activity. Actions older than the
+ * audit window ({@code actions.compaction.retain-days}) are folded into one
+ * snapshot per object at the newest compacted sequence, after which those actions
+ * and the snapshots before it are deleted. Temporal queries keep working from
+ * that snapshot onward; earlier points in time resolve to the compacted state.
+ */
+@Service
+public class ActionCompactionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActionCompactionService.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Picks a batch of objects first, so the boundary is only aggregated over their actions
+    private static final String FIND_EXPIRED =
+            "MATCH (a:Action) WHERE a.timestamp < $cutoff " +
+            "WITH DISTINCT a.objectId AS objectId LIMIT $limit " +
+            "MATCH (a:Action {objectId: objectId}) WHERE a.timestamp < $cutoff " +
+            "RETURN objectId, max(a.sequence) AS boundary";
+
+    // The latest snapshot at or before the boundary and the actions between them
+    private static final String LOAD_FOLD =
+            "UNWIND $rows AS row " +
+            "OPTIONAL MATCH (s:ObjectSnapshot {objectId: row.objectId}) WHERE s.sequence <= row.boundary " +
+            "WITH row, s ORDER BY s.sequence DESC " +
+            "WITH row, head(collect(s)) AS snap " +
+            "OPTIONAL MATCH (a:Action {objectId: row.objectId}) " +
+            "WHERE snap IS NOT NULL AND a.sequence > snap.sequence AND a.sequence <= row.boundary " +
+            "WITH row, snap, a ORDER BY a.sequence " +
+            "RETURN row.objectId AS objectId, row.boundary AS boundary, snap IS NOT NULL AS hasSnapshot, " +
+            "snap.type AS type, snap.propertiesJson AS json, collect(a {.changesJson, .unset}) AS changes, " +
+            "max(a.timestamp) AS timestamp";
+
+    // Objects without any snapshot never existed when their actions ran, so there is no
+    // state to fold and their expired actions are simply dropped
+    private static final String COMPACT =
+            "UNWIND $rows AS row " +
+            "FOREACH (_ IN CASE WHEN row.propertiesJson IS NULL THEN [] ELSE [1] END | " +
+            "  MERGE (s:ObjectSnapshot {objectId: row.objectId, sequence: row.boundary}) " +
+            "  ON CREATE SET s.id = row.snapshotId, s.type = row.type, s.propertiesJson = row.propertiesJson, " +
+            "    s.timestamp = row.timestamp) " +
+            "WITH row " +
+            // Expired actions saved without a sequence have no place in the history and are dropped
+            "OPTIONAL MATCH (a:Action {objectId: row.objectId}) " +
+            "WHERE a.sequence <= row.boundary OR (a.sequence IS NULL AND a.timestamp < $cutoff) " +
+            "DETACH DELETE a " +
+            "WITH row, count(a) AS actions " +
+            "OPTIONAL MATCH (s:ObjectSnapshot {objectId: row.objectId}) WHERE s.sequence < row.boundary " +
+            "DELETE s " +
+            "WITH row, actions, count(s) AS snapshots " +
+            "RETURN sum(actions) AS actions, sum(snapshots) AS snapshots";
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    // Actions younger than this stay individually queryable; 0 disables compaction
+    @Value("${actions.compaction.retain-days:30}")
+    private int retainDays;
+
+    @Value("${actions.compaction.batch-size:500}")
+    private int batchSize;
+
+    private final ReentrantLock compactionLock = new ReentrantLock();
+
+    @Scheduled(fixedDelayString = "${actions.compaction.interval-ms:3600000}")
+    public void compactExpired() {
+        if (retainDays <= 0 || !compactionLock.tryLock()) {
+            return;
+        }
+        try {
+            compact(LocalDateTime.now().minusDays(retainDays));
+        } catch (Exception e) {
+            logger.warn("Action compaction failed, retrying on the next run: {}", e.getMessage());
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * Folds every action recorded before {@code cutoff} into snapshots.
+     * Returns the number of actions removed.
+     */
+    public long compact(LocalDateTime cutoff) {
+        long removedActions = 0;
+        long removedSnapshots = 0;
+        while (true) {
+            Collection<Map<String, Object>> expired = neo4jClient.query(FIND_EXPIRED)
+                    .bindAll(Map.of("cutoff", cutoff, "limit", Math.max(batchSize, 1)))
+                    .fetch().all();
+            if (expired.isEmpty()) {
+                break;
+            }
+
+            List<Map<String, Object>> rows = new ArrayList<>(expired.size());
+            for (Map<String, Object> fold : neo4jClient.query(LOAD_FOLD).bind(expired).to("rows").fetch().all()) {
+                rows.add(fold(fold));
+            }
+            Map<String, Object> removed = neo4jClient.query(COMPACT)
+                    .bindAll(Map.of("rows", rows, "cutoff", cutoff))
+                    .fetch().one().orElseThrow();
+            long actions = ((Number) removed.get("actions")).longValue();
+            removedActions += actions;
+            removedSnapshots += ((Number) removed.get("snapshots")).longValue();
+            // The same batch would come back forever
+            if (actions == 0) {
+                logger.warn("Compaction removed nothing from {} objects with expired actions; stopping", rows.size());
+                break;
+            }
+        }
+
+        if (removedActions > 0) {
+            logger.info("Compacted {} actions and {} superseded snapshots recorded before {}",
+                    removedActions, removedSnapshots, cutoff);
+        }
+        return removedActions;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> fold(Map<String, Object> fold) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("objectId", fold.get("objectId"));
+        row.put("boundary", fold.get("boundary"));
+
+        List<Map<String, Object>> changes = (List<Map<String, Object>>) fold.get("changes");
+        // Nothing to fold when the newest snapshot already sits at the boundary
+        if (Boolean.TRUE.equals(fold.get("hasSnapshot")) && !changes.isEmpty()) {
+            Map<String, Object> properties = parse((String) fold.get("json"));
+            for (Map<String, Object> action : changes) {
+                ActionService.replay((String) fold.get("objectId"), properties, action);
+            }
+            row.put("snapshotId", UUID.randomUUID().toString());
+            row.put("type", fold.get("type"));
+            row.put("propertiesJson", ActionService.canonicalJson(properties));
+            row.put("timestamp", fold.get("timestamp"));
+        }
+        return row;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parse(String json) {
+        if (json == null || json.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            return objectMapper.readValue(json, Map.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to parse properties JSON", e);
+        }
+    }
+}
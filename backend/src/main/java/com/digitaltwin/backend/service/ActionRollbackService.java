@@ -0,0 +1,313 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.event.GraphChangeEvent;
+import com.digitaltwin.backend.model.ObjectEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Reverts recorded actions with the inverse patch stored alongside each one.
+ *
+ * Selected actions are reverted newest first per object, and an action is only
+ * reverted while every property it set still holds the value it set and every
+ * property it removed is still absent; otherwise something later (another action,
+ * ingestion, a direct edit) changed it and the action is reported as a conflict
+ * instead. All reverted actions of an object
+ * become a single ROLLBACK action, itself undoable, written through the same
+ * version-checked statement as {@link ActionService#applyActions}, so a batch of
+ * objects costs one read and one write.
+ */
+@Service
+public class ActionRollbackService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActionRollbackService.class);
+
+    public static final String ROLLBACK_TYPE = "ROLLBACK";
+
+    private record Target(String id, Map<String, Object> changes, List<String> unset, Map<String, Object> inverse) {}
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @Autowired
+    private ChangeSequenceService changeSequenceService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${actions.snapshot-interval:50}")
+    private int snapshotInterval;
+
+    @Value("${actions.max-attempts:5}")
+    private int maxAttempts;
+
+    // Objects reverted per transaction
+    @Value("${actions.rollback.batch-size:500}")
+    private int batchSize;
+
+    // Conflicted action ids listed in a result; the conflict count stays exact
+    @Value("${actions.rollback.max-conflicts:100}")
+    private int maxConflicts;
+
+    /**
+     * Reverts one action, every action by {@code user}, or every action recorded in
+     * [{@code from}, {@code to}); the criteria given are combined. Actions that were
+     * already rolled back, or were recorded without an inverse patch, are not selected.
+     *
+     * @param performedBy recorded as the user of the ROLLBACK actions
+     * @throws IllegalArgumentException if no criterion is given
+     */
+    @SuppressWarnings("unchecked")
+    public RollbackResult rollback(String actionId, String user, LocalDateTime from, LocalDateTime to,
+                                   String performedBy) {
+        StringBuilder selection = new StringBuilder(
+                "MATCH (a:Action) WHERE a.inverseJson IS NOT NULL AND a.rolledBackBy IS NULL ");
+        Map<String, Object> parameters = new HashMap<>();
+        if (actionId != null) {
+            selection.append("AND a.id = $actionId ");
+            parameters.put("actionId", actionId);
+        }
+        if (user != null) {
+            selection.append("AND a.user = $user ");
+            parameters.put("user", user);
+        }
+        if (from != null) {
+            selection.append("AND a.timestamp >= $from ");
+            parameters.put("from", from);
+        }
+        if (to != null) {
+            selection.append("AND a.timestamp < $to ");
+            parameters.put("to", to);
+        }
+        if (parameters.isEmpty()) {
+            throw new IllegalArgumentException("Select the actions to roll back by id, user or time window");
+        }
+
+        List<String> objectIds = new ArrayList<>(neo4jClient
+                .query(selection + "RETURN DISTINCT a.objectId AS objectId ORDER BY objectId")
+                .bindAll(parameters).fetchAs(String.class).all());
+        String loadTargets = selection + "AND a.objectId IN $ids " +
+                "RETURN a.objectId AS objectId, a.id AS id, a.changesJson AS changes, " +
+                "coalesce(a.unset, []) AS unset, a.inverseJson AS inverse " +
+                "ORDER BY a.objectId, a.sequence DESC";
+
+        long start = System.currentTimeMillis();
+        RollbackResult result = new RollbackResult();
+        GraphChangeEvent event = new GraphChangeEvent();
+        int size = Math.max(batchSize, 1);
+        for (int offset = 0; offset < objectIds.size(); offset += size) {
+            Map<String, Object> batchParameters = new HashMap<>(parameters);
+            batchParameters.put("ids", objectIds.subList(offset, Math.min(offset + size, objectIds.size())));
+
+            Map<String, List<Target>> targets = new TreeMap<>();
+            for (Map<String, Object> row : neo4jClient.query(loadTargets).bindAll(batchParameters).fetch().all()) {
+                targets.computeIfAbsent((String) row.get("objectId"), id -> new ArrayList<>()).add(new Target(
+                        (String) row.get("id"),
+                        ActionService.parse((String) row.get("objectId"), (String) row.get("changes")),
+                        (List<String>) row.get("unset"),
+                        ActionService.parse((String) row.get("objectId"), (String) row.get("inverse"))));
+            }
+            rollbackBatch(targets, performedBy, result, event);
+        }
+
+        if (!event.getChangedObjectIds().isEmpty()) {
+            eventPublisher.publishEvent(event);
+        }
+        result.setDurationMs(System.currentTimeMillis() - start);
+        logger.info("Rolled back {} actions on {} objects ({} conflicts, {} objects kept changing)",
+                result.getRolledBackActions(), result.getObjects(), result.getConflicts(),
+                result.getSkippedObjectIds().size());
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rollbackBatch(Map<String, List<Target>> pending, String performedBy, RollbackResult result,
+                               GraphChangeEvent event) {
+        for (int attempt = 1; attempt <= Math.max(maxAttempts, 1) && !pending.isEmpty(); attempt++) {
+            if (attempt > 1) {
+                ActionService.backoff(attempt - 1);
+            }
+
+            Map<String, Map<String, Object>> current = new HashMap<>();
+            neo4jClient.query(ActionService.FIND_OBJECTS).bind(new ArrayList<>(pending.keySet())).to("ids")
+                    .fetch().all().forEach(row -> current.put((String) row.get("id"), row));
+            LocalDateTime now = LocalDateTime.now();
+
+            Map<String, List<String>> reverted = new HashMap<>();
+            Map<String, List<String>> conflicted = new HashMap<>();
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Map.Entry<String, List<Target>> entry : new ArrayList<>(pending.entrySet())) {
+                String objectId = entry.getKey();
+                Map<String, Object> state = current.get(objectId);
+                List<String> revertedIds = new ArrayList<>();
+                List<String> conflictIds = new ArrayList<>();
+
+                // A deleted object has nothing left to restore
+                Map<String, Object> properties = state.get("version") == null
+                        ? null : ActionService.parse(objectId, (String) state.get("json"));
+                Map<String, Object> before = properties == null ? null : new HashMap<>(properties);
+                Set<String> touched = new LinkedHashSet<>();
+                for (Target target : entry.getValue()) {
+                    if (properties == null || !stillApplied(properties, target.changes(), target.unset())) {
+                        conflictIds.add(target.id());
+                        continue;
+                    }
+                    revert(properties, target.inverse());
+                    touched.addAll(target.changes().keySet());
+                    touched.addAll(target.unset());
+                    revertedIds.add(target.id());
+                }
+                if (revertedIds.isEmpty()) {
+                    recordConflicts(result, conflictIds);
+                    pending.remove(objectId);
+                    continue;
+                }
+                reverted.put(objectId, revertedIds);
+                conflicted.put(objectId, conflictIds);
+                rows.add(rollbackRow(objectId, state, before, properties, touched, revertedIds, performedBy, now));
+            }
+            if (rows.isEmpty()) {
+                return;
+            }
+
+            Collection<Map<String, Object>> written = changeSequenceService.stampBlock(rows.size(), firstSeq -> {
+                for (int i = 0; i < rows.size(); i++) {
+                    rows.get(i).put("changeSeq", firstSeq + i);
+                    ((List<Map<String, Object>>) rows.get(i).get("actions")).get(0).put("changeSeq", firstSeq + i);
+                }
+                return neo4jClient.query(ActionService.APPLY_ACTIONS).bind(rows).to("rows").fetch().all();
+            });
+            for (Map<String, Object> row : written) {
+                String objectId = (String) row.get("objectId");
+                result.setObjects(result.getObjects() + 1);
+                result.setRolledBackActions(result.getRolledBackActions() + reverted.get(objectId).size());
+                recordConflicts(result, conflicted.get(objectId));
+                event.objectUpdated(objectId);
+                pending.remove(objectId);
+            }
+        }
+        result.getSkippedObjectIds().addAll(pending.keySet());
+    }
+
+    private Map<String, Object> rollbackRow(String objectId, Map<String, Object> state, Map<String, Object> before,
+                                            Map<String, Object> properties, Set<String> touched,
+                                            List<String> revertedIds, String performedBy, LocalDateTime now) {
+        // Properties the rollback removed are recorded apart from the ones it set back
+        Map<String, Object> changes = new LinkedHashMap<>();
+        List<String> unset = new ArrayList<>();
+        for (String key : touched) {
+            if (properties.containsKey(key)) {
+                changes.put(key, properties.get(key));
+            } else {
+                unset.add(key);
+            }
+        }
+        long sequence = ((Number) state.get("sequence")).longValue() + 1;
+
+        Map<String, Object> action = new HashMap<>();
+        action.put("id", UUID.randomUUID().toString());
+        action.put("type", ROLLBACK_TYPE);
+        action.put("changesJson", ActionService.canonicalJson(changes));
+        action.put("unset", unset.isEmpty() ? null : unset);
+        action.put("inverseJson", ActionService.inverseJson(before, touched));
+        action.put("sequence", sequence);
+        action.put("timestamp", now);
+        action.put("user", performedBy);
+        if (snapshotInterval > 0 && sequence % snapshotInterval == 0) {
+            action.put("snapshotId", UUID.randomUUID().toString());
+            action.put("snapshotJson", ActionService.canonicalJson(properties));
+        }
+
+        Map<String, Object> row = new HashMap<>();
+        row.put("objectId", objectId);
+        row.put("expectedVersion", state.get("version"));
+        row.put("latestSequence", state.get("sequence"));
+        row.put("previousJson", state.get("json"));
+        row.put("propertiesJson", ActionService.canonicalJson(properties));
+        row.put("searchText", ObjectEntity.searchText(properties));
+        row.put("baseSnapshotId", UUID.randomUUID().toString());
+        row.put("timestamp", now);
+        row.put("revertedActionIds", revertedIds);
+        row.put("actions", List.of(action));
+        return row;
+    }
+
+    // Every property the action set must still hold the value it set, and every one it removed must still be absent
+    private static boolean stillApplied(Map<String, Object> properties, Map<String, Object> changes,
+                                        List<String> unset) {
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            if (!properties.containsKey(change.getKey())
+                    || !Objects.equals(properties.get(change.getKey()), change.getValue())) {
+                return false;
+            }
+        }
+        for (String key : unset) {
+            if (properties.containsKey(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void revert(Map<String, Object> properties, Map<String, Object> inverse) {
+        properties.putAll((Map<String, Object>) inverse.getOrDefault("set", Map.of()));
+        for (String key : (List<String>) inverse.getOrDefault("unset", List.of())) {
+            properties.remove(key);
+        }
+    }
+
+    private void recordConflicts(RollbackResult result, List<String> conflictIds) {
+        result.setConflicts(result.getConflicts() + conflictIds.size());
+        for (String id : conflictIds) {
+            if (result.getConflictedActionIds().size() < maxConflicts) {
+                result.getConflictedActionIds().add(id);
+            }
+        }
+    }
+
+    public static class RollbackResult {
+        private long rolledBackActions;
+        private long objects;
+        private long conflicts;
+        private List<String> conflictedActionIds = new ArrayList<>();
+        private List<String> skippedObjectIds = new ArrayList<>();
+        private long durationMs;
+
+        public long getRolledBackActions() { return rolledBackActions; }
+        public void setRolledBackActions(long rolledBackActions) { this.rolledBackActions = rolledBackActions; }
+
+        public long getObjects() { return objects; }
+        public void setObjects(long objects) { this.objects = objects; }
+
+        public long getConflicts() { return conflicts; }
+        public void setConflicts(long conflicts) { this.conflicts = conflicts; }
+
+        public List<String> getConflictedActionIds() { return conflictedActionIds; }
+        public void setConflictedActionIds(List<String> conflictedActionIds) { this.conflictedActionIds = conflictedActionIds; }
+
+        public List<String> getSkippedObjectIds() { return skippedObjectIds; }
+        public void setSkippedObjectIds(List<String> skippedObjectIds) { this.skippedObjectIds = skippedObjectIds; }
+
+        public long getDurationMs() { return durationMs; }
+        public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+    }
+}
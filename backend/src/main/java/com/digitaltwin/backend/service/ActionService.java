@@ -1,25 +1,115 @@
 package com.digitaltwin.backend.service;
 
+import com.digitaltwin.backend.dto.ActionRejection;
+import com.digitaltwin.backend.dto.ActionRequest;
+import com.digitaltwin.backend.event.GraphChangeEvent;
 import com.digitaltwin.backend.model.Action;
 import com.digitaltwin.backend.model.ObjectEntity;
 import com.digitaltwin.backend.repository.ActionRepository;
-import com.digitaltwin.backend.repository.ObjectRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.neo4j.core.Neo4jClient;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class ActionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ActionService.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Compaction deletes old actions but leaves a snapshot at the newest compacted
+    // sequence, so the latest sequence is the highest of either
+    private static final String LATEST_SEQUENCE =
+            "OPTIONAL MATCH (previous:Action {objectId: %1$s}) " +
+            "WITH %2$s, coalesce(max(previous.sequence), 0) AS latestAction " +
+            "OPTIONAL MATCH (snapshot:ObjectSnapshot {objectId: %1$s}) " +
+            "WITH %2$s, latestAction, coalesce(max(snapshot.sequence), 0) AS latestSnapshot " +
+            "WITH %2$s, CASE WHEN latestAction > latestSnapshot THEN latestAction ELSE latestSnapshot END AS latest ";
+
+    static final String FIND_OBJECTS =
+            "UNWIND $ids AS id " +
+            "OPTIONAL MATCH (o:Object {id: id}) " +
+            LATEST_SEQUENCE.formatted("id", "id, o") +
+            "RETURN id, o.type AS type, o.propertiesJson AS json, " +
+            "  CASE WHEN o IS NULL THEN null ELSE coalesce(o.version, 0) END AS version, latest AS sequence";
+
+    // One row per object with its actions in submission order. Setting a property first takes
+    // the node's write lock, so the version compared below cannot change before commit. An
+    // object whose version or action history moved since it was read yields no row and
+    // nothing is written for it; objects that do not exist only get their actions recorded.
+    // Rollbacks also list the actions they revert, which get marked in the same write.
+    static final String APPLY_ACTIONS =
+            "UNWIND $rows AS row " +
+            "OPTIONAL MATCH (o:Object {id: row.objectId}) " +
+            "SET o.actionLock = true " +
+            "WITH o, row, (o IS NULL) = (row.expectedVersion IS NULL) " +
+            "  AND (o IS NULL OR coalesce(o.version, 0) = row.expectedVersion) AS unchanged " +
+            "REMOVE o.actionLock " +
+            "WITH o, row WHERE unchanged " +
+            LATEST_SEQUENCE.formatted("row.objectId", "o, row") +
+            "WHERE latest = row.latestSequence " +
+            "FOREACH (_ IN CASE WHEN o IS NULL THEN [] ELSE [1] END | " +
+            "  SET o.propertiesJson = row.propertiesJson, o.searchText = row.searchText, o.version = row.expectedVersion + 1, " +
+            "    o.changeSeq = row.changeSeq) " +
+            // Base snapshot so history can be rebuilt from before the first action
+            "FOREACH (_ IN CASE WHEN o IS NOT NULL AND latest = 0 THEN [1] ELSE [] END | " +
+            "  CREATE (:ObjectSnapshot {id: row.baseSnapshotId, objectId: row.objectId, type: o.type, " +
+            "    propertiesJson: row.previousJson, sequence: 0, timestamp: row.timestamp})) " +
+            "WITH o, row " +
+            "OPTIONAL MATCH (reverted:Action) WHERE reverted.id IN coalesce(row.revertedActionIds, []) " +
+            "SET reverted.rolledBackBy = head(row.actions).id " +
+            "WITH DISTINCT o, row " +
+            "UNWIND row.actions AS action " +
+            "CREATE (:Action {id: action.id, type: action.type, objectId: row.objectId, changesJson: action.changesJson, " +
+            "  unset: action.unset, inverseJson: action.inverseJson, sequence: action.sequence, changeSeq: action.changeSeq, " +
+            "  timestamp: action.timestamp, user: action.user}) " +
+            "FOREACH (_ IN CASE WHEN o IS NOT NULL AND action.snapshotJson IS NOT NULL THEN [1] ELSE [] END | " +
+            "  CREATE (:ObjectSnapshot {id: action.snapshotId, objectId: row.objectId, type: o.type, " +
+            "    propertiesJson: action.snapshotJson, sequence: action.sequence, timestamp: action.timestamp})) " +
+            "RETURN DISTINCT row.objectId AS objectId, o IS NOT NULL AS exists";
+
     @Autowired
     private ActionRepository actionRepository;
 
     @Autowired
-    private ObjectRepository objectRepository;
+    private ChangeSequenceService changeSequenceService;
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ActionTypeRegistry actionTypeRegistry;
+
+    // Historical reads replay at most this many actions on top of a snapshot
+    @Value("${actions.snapshot-interval:50}")
+    private int snapshotInterval;
+
+    @Value("${actions.max-attempts:5}")
+    private int maxAttempts;
 
     public List<Action> getAllActions() {
         return actionRepository.findAll();
@@ -37,25 +127,230 @@ public class ActionService {
         return actionRepository.findByUser(user);
     }
 
+    /**
+     * Applies the changes to the object and records the action in one write, so both
+     * commit or neither does.
+     *
+     * @throws IllegalArgumentException if the action breaks the rules of its registered type
+     * @throws OptimisticLockingFailureException if every attempt lost to a concurrent write
+     */
     public Action createAction(String actionType, String objectId, Map<String, Object> changes, String user) {
-        // Log the action
-        Action action = new Action();
-        action.setId(java.util.UUID.randomUUID().toString());
-        action.setType(actionType);
-        action.setObjectId(objectId);
-        action.setChanges(changes);
-        action.setTimestamp(LocalDateTime.now());
-        action.setUser(user);
-
-        // Apply changes to object
-        Optional<ObjectEntity> objOpt = objectRepository.findById(objectId);
-        if (objOpt.isPresent()) {
-            ObjectEntity obj = objOpt.get();
-            obj.getProperties().putAll(changes);
-            objectRepository.save(obj);
+        BatchResult result = applyActions(List.of(new ActionRequest(actionType, objectId, changes, user)));
+        if (!result.getRejections().isEmpty()) {
+            throw new IllegalArgumentException(result.getRejections().get(0).getReason());
         }
+        if (!result.getConflictedObjectIds().isEmpty()) {
+            throw new OptimisticLockingFailureException(
+                    "Object " + objectId + " kept changing; action " + actionType + " was not applied");
+        }
+        return result.getActions().get(0);
+    }
 
-        return actionRepository.save(action);
+    /**
+     * Applies many actions with one write per attempt. Actions are grouped by object and
+     * each object's actions are merged in submission order into a single update, which
+     * only commits against the object version the merge started from. Objects that lost
+     * to a concurrent write are re-read and retried as a whole, up to
+     * {@code actions.max-attempts} times, so an object never has a later action applied
+     * without the earlier ones.
+     *
+     * Actions of a registered type are checked against its rules: their changes before
+     * anything is read, the object's type and preconditions against its state just before
+     * the action. Rejected actions are skipped and reported; their object's other actions
+     * still apply.
+     */
+    public BatchResult applyActions(List<ActionRequest> requests) {
+        Action[] applied = new Action[requests.size()];
+        String[] rejected = new String[requests.size()];
+        List<ActionRequest> resolved = new ArrayList<>(requests);
+        // Sorted so concurrent batches lock the objects they share in the same order
+        Map<String, List<Integer>> pending = new TreeMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ActionRequest request = requests.get(i);
+            // An action without changes is still recorded, as an empty one
+            Map<String, Object> changes = request.getChanges() == null ? Map.of() : request.getChanges();
+            rejected[i] = actionTypeRegistry.validate(request.getType(), changes);
+            if (rejected[i] != null) {
+                continue;
+            }
+            resolved.set(i, new ActionRequest(request.getType(), request.getObjectId(),
+                    actionTypeRegistry.derive(request.getType(), changes), request.getUser()));
+            pending.computeIfAbsent(request.getObjectId(), id -> new ArrayList<>()).add(i);
+        }
+
+        GraphChangeEvent event = new GraphChangeEvent();
+        for (int attempt = 1; attempt <= Math.max(maxAttempts, 1) && !pending.isEmpty(); attempt++) {
+            if (attempt > 1) {
+                logger.debug("{} objects lost a concurrent update (attempt {})", pending.size(), attempt - 1);
+                backoff(attempt - 1);
+            }
+            pending.keySet().removeAll(applyOnce(resolved, pending, applied, rejected, event));
+        }
+
+        if (!event.getChangedObjectIds().isEmpty()) {
+            eventPublisher.publishEvent(event);
+        }
+        List<ActionRejection> rejections = new ArrayList<>();
+        for (int i = 0; i < rejected.length; i++) {
+            if (rejected[i] != null) {
+                rejections.add(new ActionRejection(i, requests.get(i).getObjectId(), rejected[i]));
+            }
+        }
+        return new BatchResult(Arrays.asList(applied), new ArrayList<>(pending.keySet()), rejections);
+    }
+
+    /**
+     * Returns the objects that are done: written, or left with no action to apply.
+     */
+    private Set<String> applyOnce(List<ActionRequest> requests, Map<String, List<Integer>> pending, Action[] applied,
+                                  String[] rejected, GraphChangeEvent event) {
+        Map<String, Map<String, Object>> current = new HashMap<>();
+        neo4jClient.query(FIND_OBJECTS).bind(new ArrayList<>(pending.keySet())).to("ids").fetch().all()
+                .forEach(row -> current.put((String) row.get("id"), row));
+        int actionCount = pending.values().stream().mapToInt(List::size).sum();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, Action> prepared = new HashMap<>();
+        Set<String> done = new HashSet<>();
+
+        Collection<Map<String, Object>> written = changeSequenceService.stampBlock(actionCount, firstSeq -> {
+            long changeSeq = firstSeq;
+            List<Map<String, Object>> rows = new ArrayList<>(pending.size());
+            for (Map.Entry<String, List<Integer>> group : pending.entrySet()) {
+                String objectId = group.getKey();
+                Map<String, Object> state = current.get(objectId);
+                boolean exists = state.get("version") != null;
+                long sequence = ((Number) state.get("sequence")).longValue();
+                Map<String, Object> properties = exists ? parse(objectId, (String) state.get("json")) : null;
+
+                List<Map<String, Object>> actionRows = new ArrayList<>(group.getValue().size());
+                for (int index : group.getValue()) {
+                    ActionRequest request = requests.get(index);
+                    // Checked against the state left by the object's earlier actions in this batch
+                    rejected[index] = actionTypeRegistry.checkState(
+                            request.getType(), (String) state.get("type"), properties);
+                    if (rejected[index] != null) {
+                        continue;
+                    }
+                    Action action = new Action(UUID.randomUUID().toString(), request.getType(), objectId,
+                            request.getChanges(), now, request.getUser());
+                    action.setSequence(++sequence);
+                    action.setChangeSeq(changeSeq++);
+                    prepared.put(index, action);
+
+                    Map<String, Object> actionRow = new HashMap<>();
+                    actionRow.put("id", action.getId());
+                    actionRow.put("type", action.getType());
+                    actionRow.put("changesJson", action.getChangesJson());
+                    actionRow.put("sequence", action.getSequence());
+                    actionRow.put("changeSeq", action.getChangeSeq());
+                    actionRow.put("timestamp", now);
+                    actionRow.put("user", action.getUser());
+                    if (exists) {
+                        action.setInverseJson(inverseJson(properties, request.getChanges().keySet()));
+                        actionRow.put("inverseJson", action.getInverseJson());
+                        properties.putAll(request.getChanges());
+                        if (snapshotInterval > 0 && action.getSequence() % snapshotInterval == 0) {
+                            actionRow.put("snapshotId", UUID.randomUUID().toString());
+                            actionRow.put("snapshotJson", canonicalJson(properties));
+                        }
+                    }
+                    actionRows.add(actionRow);
+                }
+                if (actionRows.isEmpty()) {
+                    done.add(objectId);
+                    continue;
+                }
+
+                Map<String, Object> row = new HashMap<>();
+                row.put("objectId", objectId);
+                row.put("expectedVersion", state.get("version"));
+                row.put("latestSequence", state.get("sequence"));
+                row.put("previousJson", state.get("json"));
+                row.put("propertiesJson", exists ? canonicalJson(properties) : null);
+                row.put("searchText", exists ? ObjectEntity.searchText(properties) : null);
+                row.put("changeSeq", changeSeq - 1);
+                row.put("baseSnapshotId", UUID.randomUUID().toString());
+                row.put("timestamp", now);
+                row.put("actions", actionRows);
+                rows.add(row);
+            }
+            return neo4jClient.query(APPLY_ACTIONS)
+                    .bind(rows).to("rows")
+                    .fetch().all();
+        });
+
+        for (Map<String, Object> row : written) {
+            String objectId = (String) row.get("objectId");
+            done.add(objectId);
+            if ((Boolean) row.get("exists")) {
+                event.objectUpdated(objectId);
+            }
+            for (int index : pending.get(objectId)) {
+                applied[index] = prepared.get(index);
+            }
+        }
+        return done;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> parse(String objectId, String propertiesJson) {
+        if (propertiesJson == null || propertiesJson.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            return objectMapper.readValue(propertiesJson, Map.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to parse properties JSON of object " + objectId, e);
+        }
+    }
+
+    /**
+     * The patch restoring {@code keys} to their values in {@code properties}: keys present
+     * there are set back, absent ones removed.
+     */
+    static String inverseJson(Map<String, Object> properties, Collection<String> keys) {
+        Map<String, Object> set = new HashMap<>();
+        List<String> unset = new ArrayList<>();
+        for (String key : keys) {
+            if (properties.containsKey(key)) {
+                set.put(key, properties.get(key));
+            } else {
+                unset.add(key);
+            }
+        }
+        try {
+            return objectMapper.writeValueAsString(Map.of("set", set, "unset", unset));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize inverse patch to JSON", e);
+        }
+    }
+
+    /**
+     * Replays one recorded action, as returned by {@code a {.changesJson, .unset}}, onto
+     * {@code properties}: its changes are set and its unset keys removed.
+     */
+    @SuppressWarnings("unchecked")
+    static void replay(String objectId, Map<String, Object> properties, Map<String, Object> action) {
+        properties.putAll(parse(objectId, (String) action.get("changesJson")));
+        if (action.get("unset") != null) {
+            ((List<String>) action.get("unset")).forEach(properties::remove);
+        }
+    }
+
+    // Serialized through the entity so the stored JSON stays canonical
+    static String canonicalJson(Map<String, Object> properties) {
+        ObjectEntity object = new ObjectEntity();
+        object.setProperties(properties);
+        return object.getPropertiesJson();
+    }
+
+    static void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 1L + 5L * attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticLockingFailureException("Interrupted while retrying an action", e);
+        }
     }
 
     public Action saveAction(Action action) {
@@ -65,4 +360,21 @@ public class ActionService {
     public void deleteAction(String id) {
         actionRepository.deleteById(id);
     }
+
+    public static class BatchResult {
+        // One entry per request, in request order; null where the action was not applied
+        private final List<Action> actions;
+        private final List<String> conflictedObjectIds;
+        private final List<ActionRejection> rejections;
+
+        public BatchResult(List<Action> actions, List<String> conflictedObjectIds, List<ActionRejection> rejections) {
+            this.actions = actions;
+            this.conflictedObjectIds = conflictedObjectIds;
+            this.rejections = rejections;
+        }
+
+        public List<Action> getActions() { return actions; }
+        public List<String> getConflictedObjectIds() { return conflictedObjectIds; }
+        public List<ActionRejection> getRejections() { return rejections; }
+    }
 }
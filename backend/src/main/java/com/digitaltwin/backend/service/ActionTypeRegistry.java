@@ -0,0 +1,107 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.actiontype.ActionTypeDefinition;
+import com.digitaltwin.backend.actiontype.CompiledActionType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registered action types, loaded from the JSON file at {@code actions.types.file}
+ * (any Spring resource location) and compiled once at startup; a malformed file
+ * fails startup. Unregistered types are accepted unchecked unless
+ * {@code actions.types.strict} is set.
+ */
+@Service
+public class ActionTypeRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActionTypeRegistry.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${actions.types.file:}")
+    private String file;
+
+    @Value("${actions.types.strict:false}")
+    private boolean strict;
+
+    private Map<String, CompiledActionType> types = Map.of();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (file == null || file.isBlank()) {
+            return;
+        }
+        Resource resource = resourceLoader.getResource(file);
+        Map<String, ActionTypeDefinition> definitions;
+        try (InputStream in = resource.getInputStream()) {
+            definitions = objectMapper.readValue(in, new TypeReference<Map<String, ActionTypeDefinition>>() {});
+        }
+
+        Map<String, CompiledActionType> compiled = new HashMap<>();
+        definitions.forEach((name, definition) -> {
+            try {
+                compiled.put(name, CompiledActionType.compile(name, definition));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Invalid action type '" + name + "' in " + file + ": " + e.getMessage(), e);
+            }
+        });
+        types = Map.copyOf(compiled);
+        logger.info("Registered {} action types from {}", types.size(), file);
+    }
+
+    public Set<String> getTypeNames() {
+        return types.keySet();
+    }
+
+    /**
+     * Checks an action's type and changes without looking at the object.
+     * Returns why the action is rejected, or null if it may proceed.
+     */
+    public String validate(String type, Map<String, Object> changes) {
+        CompiledActionType compiled = types.get(type);
+        if (compiled == null) {
+            return strict ? "Unknown action type '" + type + "'" : null;
+        }
+        String violation = compiled.validateChanges(changes == null ? Map.of() : changes);
+        return violation == null ? null : type + ": " + violation;
+    }
+
+    /**
+     * Checks the object an action is about to be applied to; {@code properties} is null
+     * if it does not exist. Returns why the action is rejected, or null.
+     */
+    public String checkState(String type, String objectType, Map<String, Object> properties) {
+        CompiledActionType compiled = types.get(type);
+        if (compiled == null) {
+            return null;
+        }
+        String violation = compiled.checkState(objectType, properties);
+        return violation == null ? null : type + ": " + violation;
+    }
+
+    /**
+     * The changes an action of {@code type} actually applies: the submitted ones plus
+     * the type's derived properties.
+     */
+    public Map<String, Object> derive(String type, Map<String, Object> changes) {
+        CompiledActionType compiled = types.get(type);
+        return compiled == null ? changes : compiled.derive(changes);
+    }
+}
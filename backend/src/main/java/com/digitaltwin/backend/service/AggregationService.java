@@ -0,0 +1,142 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.dto.DegreeBucket;
+import com.digitaltwin.backend.dto.KeyCount;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Summary numbers for dashboards, computed with Cypher aggregation so that
+ * only the aggregates leave the database. Object and link type counts can be
+ * served from the counters {@link GraphOverviewService} already maintains.
+ */
+@Service
+public class AggregationService {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String COUNT_BY_OBJECT_TYPE =
+            "MATCH (o:Object) RETURN o.type AS key, count(*) AS count ORDER BY count DESC";
+
+    private static final String COUNT_BY_LINK_TYPE =
+            "MATCH ()-[r:LINKS_TO]->() RETURN r.type AS key, count(*) AS count ORDER BY count DESC";
+
+    private static final String DEGREE_COUNTS =
+            "MATCH (o:Object) %s WITH COUNT { (o)-[:LINKS_TO]-() } AS degree " +
+            "RETURN degree, count(*) AS count";
+
+    private static final String FACETS_APOC =
+            "MATCH (o:Object {type: $type}) " +
+            "WITH apoc.convert.fromJsonMap(o.propertiesJson)[$property] AS value WHERE value IS NOT NULL " +
+            "RETURN toString(value) AS key, count(*) AS count ORDER BY count DESC LIMIT $limit";
+
+    // Without APOC the JSON can't be decoded in Cypher, so only the one column is projected
+    private static final String FACETS_PROJECTION =
+            "MATCH (o:Object {type: $type}) WHERE o.propertiesJson CONTAINS $quotedProperty " +
+            "RETURN o.propertiesJson AS json";
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @Autowired
+    private GraphOverviewService graphOverviewService;
+
+    @Value("${aggregation.maintained-counters.enabled:true}")
+    private boolean useMaintainedCounters;
+
+    @Value("${aggregation.facets.use-apoc:false}")
+    private boolean useApoc;
+
+    public List<KeyCount> countObjectsByType() {
+        if (useMaintainedCounters) {
+            return sorted(graphOverviewService.getObjectCountsByType());
+        }
+        return queryKeyCounts(COUNT_BY_OBJECT_TYPE, Map.of());
+    }
+
+    public List<KeyCount> countLinksByType() {
+        if (useMaintainedCounters) {
+            return sorted(graphOverviewService.getLinkCountsByType());
+        }
+        return queryKeyCounts(COUNT_BY_LINK_TYPE, Map.of());
+    }
+
+    /**
+     * Degree histogram in power-of-two buckets: 0, 1, 2–3, 4–7, ...
+     */
+    public List<DegreeBucket> getDegreeDistribution(String type) {
+        String query = String.format(DEGREE_COUNTS, type != null ? "WHERE o.type = $type" : "");
+        Map<String, Object> parameters = new HashMap<>();
+        if (type != null) {
+            parameters.put("type", type);
+        }
+
+        TreeMap<Integer, Long> buckets = new TreeMap<>();
+        for (Map<String, Object> row : neo4jClient.query(query).bindAll(parameters).fetch().all()) {
+            long degree = ((Number) row.get("degree")).longValue();
+            int bucket = degree == 0 ? 0 : 64 - Long.numberOfLeadingZeros(degree);
+            buckets.merge(bucket, ((Number) row.get("count")).longValue(), Long::sum);
+        }
+
+        List<DegreeBucket> distribution = new ArrayList<>();
+        buckets.forEach((bucket, count) -> distribution.add(bucket == 0
+                ? new DegreeBucket(0, 0, count)
+                : new DegreeBucket(1L << (bucket - 1), (1L << bucket) - 1, count)));
+        return distribution;
+    }
+
+    /**
+     * Most frequent values of one property across the objects of a type.
+     */
+    public List<KeyCount> getPropertyFacets(String type, String property, int limit) {
+        if (useApoc) {
+            return queryKeyCounts(FACETS_APOC, Map.of("type", type, "property", property, "limit", limit));
+        }
+
+        Map<String, Long> counts = new HashMap<>();
+        neo4jClient.query(FACETS_PROJECTION)
+                .bindAll(Map.of("type", type, "quotedProperty", "\"" + property + "\""))
+                .fetchAs(String.class).all()
+                .forEach(json -> {
+                    Object value = parse(json).get(property);
+                    if (value != null) {
+                        counts.merge(String.valueOf(value), 1L, Long::sum);
+                    }
+                });
+        return sorted(counts).stream().limit(limit).collect(Collectors.toList());
+    }
+
+    private List<KeyCount> queryKeyCounts(String query, Map<String, Object> parameters) {
+        return neo4jClient.query(query).bindAll(parameters).fetch().all().stream()
+                .map(row -> new KeyCount((String) row.get("key"), ((Number) row.get("count")).longValue()))
+                .collect(Collectors.toList());
+    }
+
+    private static List<KeyCount> sorted(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .map(e -> new KeyCount(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingLong(KeyCount::getCount).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parse(String json) {
+        try {
+            return objectMapper.readValue(json, Map.class);
+        } catch (JsonProcessingException e) {
+            return Map.of();
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.digitaltwin.backend.service;
 
 import com.digitaltwin.backend.model.AuditLog;
 import com.digitaltwin.backend.repository.AuditLogRepository;
+import com.digitaltwin.backend.repository.ReactiveAuditLogRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,6 +20,9 @@ public class AuditService {
     @Autowired
     private AuditLogRepository auditLogRepository;
 
+    @Autowired
+    private ReactiveAuditLogRepository reactiveAuditLogRepository;
+
     @Autowired
     private HttpServletRequest request;
 
@@ -106,7 +111,23 @@ public class AuditService {
         return auditLogRepository.findFailedActions();
     }
 
+    public long countLogs() {
+        return auditLogRepository.count();
+    }
+
+    public long countFailedActions() {
+        return auditLogRepository.countFailedActions();
+    }
+
+    public long countActionsSince(String action, LocalDateTime since) {
+        return auditLogRepository.countByActionSince(action, since);
+    }
+
     public List<AuditLog> getLogsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         return auditLogRepository.findByTimestampBetween(startDate, endDate);
     }
+
+    public Flux<AuditLog> streamLogsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return reactiveAuditLogRepository.streamByTimestampBetween(startDate, endDate);
+    }
 }
\ No newline at end of file
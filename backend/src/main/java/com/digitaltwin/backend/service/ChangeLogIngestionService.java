@@ -0,0 +1,580 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.event.GraphChangeEvent;
+import com.digitaltwin.backend.model.ChangeLogCheckpoint;
+import com.digitaltwin.backend.model.ObjectEntity;
+import com.digitaltwin.backend.repository.ChangeLogCheckpointRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tails an append-only change log of JSON lines and applies each event as a
+ * minimal update. Objects and links are identified by (type, key), stored as
+ * {@code naturalKey}. Events:
+ * <pre>
+ * {"op": "c|u|d", "type": "Product", "key": "sku-1", "before": {...}, "after": {...}}
+ * {"op": "c|u|d", "entity": "link", "type": "SUPPLIES", "key": "s1-sku-1",
+ *  "source": {"type": "Supplier", "key": "s1"}, "target": {"type": "Product", "key": "sku-1"}, "after": {...}}
+ * </pre>
+ * An update changes only the properties that differ between {@code before}
+ * and {@code after}, so properties edited locally are kept. Events on the same
+ * key within a batch are coalesced into one write. The log offset is advanced
+ * in the same transaction as the batch it covers, so every event is applied
+ * exactly once across restarts.
+ */
+@Service
+public class ChangeLogIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeLogIngestionService.class);
+
+    private static final ObjectReader eventReader = new ObjectMapper().readerFor(Map.class);
+
+    // Same canonical form as ObjectEntity, so content hashes match other writers
+    private static final ObjectMapper canonicalMapper = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private static final String CURRENT_OBJECTS =
+            "UNWIND $keys AS k " +
+            "MATCH (o:Object {type: k.type, naturalKey: k.key}) " +
+            "RETURN k.type AS type, k.key AS key, o.propertiesJson AS json";
+
+    private static final String CURRENT_LINKS =
+            "UNWIND $keys AS k " +
+            "MATCH ()-[r:LINKS_TO {type: k.type, naturalKey: k.key}]->() " +
+            "RETURN k.type AS type, k.key AS key, r.propertiesJson AS json";
+
+    private static final String UPSERT_OBJECTS =
+            "UNWIND $rows AS row " +
+            "MERGE (o:Object {type: row.type, naturalKey: row.key}) " +
+            "ON CREATE SET o.id = row.id, o.createdSeq = row.changeSeq " +
+            "WITH o, row, o.id = row.id AND o.createdSeq = row.changeSeq AS created, " +
+            "  o.contentHash IS NULL OR o.contentHash <> row.contentHash AS changed " +
+            "FOREACH (_ IN CASE WHEN changed THEN [1] ELSE [] END | " +
+            "  SET o.propertiesJson = row.propertiesJson, o.searchText = row.searchText, o.contentHash = row.contentHash, " +
+            "    o.changeSeq = row.changeSeq, " +
+            "    o.version = coalesce(o.version, 0) + 1) " +
+            "RETURN o.id AS id, o.type AS type, created, changed";
+
+    // Links whose endpoints do not exist are not created and return no row
+    private static final String UPSERT_LINKS =
+            "UNWIND $rows AS row " +
+            "MATCH (s:Object {type: row.sourceType, naturalKey: row.sourceKey}), " +
+            "  (t:Object {type: row.targetType, naturalKey: row.targetKey}) " +
+            "MERGE (s)-[r:LINKS_TO {type: row.type, naturalKey: row.key}]->(t) " +
+            "ON CREATE SET r.id = row.id " +
+            "WITH s, r, t, row, r.id = row.id AND r.changeSeq IS NULL AS created, " +
+            "  r.propertiesJson IS NULL OR r.propertiesJson <> row.propertiesJson AS changed " +
+            "FOREACH (_ IN CASE WHEN changed THEN [1] ELSE [] END | " +
+            "  SET r.propertiesJson = row.propertiesJson, r.changeSeq = row.changeSeq) " +
+            "RETURN r.id AS id, s.id AS sourceId, s.type AS sourceType, row.type AS linkType, " +
+            "  t.id AS targetId, t.type AS targetType, created, changed";
+
+    private static final String DELETE_LINKS =
+            "UNWIND $rows AS row " +
+            "MATCH (s:Object)-[r:LINKS_TO {type: row.type, naturalKey: row.key}]->(t:Object) " +
+            "WITH r, row, r.id AS id, s.id AS sourceId, t.id AS targetId, s.type AS sourceType, t.type AS targetType " +
+            "DELETE r " +
+            "CREATE (:Tombstone {entityId: id, entityType: 'LINK', changeSeq: row.changeSeq}) " +
+            "RETURN id, sourceId, targetId, sourceType, row.type AS linkType, targetType";
+
+    private static final String DELETE_OBJECTS =
+            "UNWIND $rows AS row " +
+            "MATCH (o:Object {type: row.type, naturalKey: row.key}) " +
+            "OPTIONAL MATCH (o)-[r:LINKS_TO]-(other:Object) " +
+            "WITH o, row, o.id AS id, o.type AS type, collect(r.id) AS linkIds, collect(CASE WHEN r IS NULL THEN null " +
+            "  WHEN startNode(r) = o THEN [o.type, r.type, other.type] ELSE [other.type, r.type, o.type] END) AS edges " +
+            "DETACH DELETE o " +
+            "CREATE (:Tombstone {entityId: id, entityType: 'OBJECT', changeSeq: row.changeSeq}) " +
+            "FOREACH (linkId IN linkIds | CREATE (:Tombstone {entityId: linkId, entityType: 'LINK', changeSeq: row.changeSeq})) " +
+            "RETURN id, type, edges";
+
+    // Only advances from the expected offset, so a batch can never be applied twice
+    private static final String ADVANCE_CHECKPOINT =
+            "MERGE (c:ChangeLogCheckpoint {source: $source}) " +
+            "WITH c WHERE coalesce(c.committedOffset, 0) = $expectedOffset " +
+            "SET c.committedOffset = $offset, " +
+            "  c.appliedEvents = coalesce(c.appliedEvents, 0) + $applied, " +
+            "  c.coalescedEvents = coalesce(c.coalescedEvents, 0) + $coalesced, " +
+            "  c.failedEvents = coalesce(c.failedEvents, 0) + $failed, " +
+            "  c.lastAppliedAt = localdatetime(), c.lastError = coalesce($lastError, c.lastError) " +
+            "RETURN c.committedOffset";
+
+    private enum Kind { REPLACE, PATCH, DELETE }
+
+    private record Line(long start, long end, byte[] bytes) {}
+
+    private record ChangeKey(boolean link, String type, String key) {}
+
+    /**
+     * The net effect of the events on one key within a batch.
+     */
+    private static class Change {
+        Kind kind;
+        final Map<String, Object> set = new LinkedHashMap<>();
+        final Set<String> removed = new HashSet<>();
+        Map<?, ?> source;
+        Map<?, ?> target;
+
+        void replace(Map<String, Object> properties) {
+            kind = Kind.REPLACE;
+            set.clear();
+            removed.clear();
+            set.putAll(properties);
+        }
+
+        void patch(Map<String, Object> before, Map<String, Object> after) {
+            if (kind == Kind.DELETE) {
+                // An update after a delete recreates the record from its after-image
+                replace(after);
+                return;
+            }
+            if (kind == null) {
+                kind = Kind.PATCH;
+            }
+            for (Map.Entry<String, Object> property : after.entrySet()) {
+                if (before == null || !Objects.equals(before.get(property.getKey()), property.getValue())
+                        || !before.containsKey(property.getKey())) {
+                    set.put(property.getKey(), property.getValue());
+                    removed.remove(property.getKey());
+                }
+            }
+            if (before != null) {
+                for (String key : before.keySet()) {
+                    if (!after.containsKey(key)) {
+                        set.remove(key);
+                        if (kind == Kind.PATCH) {
+                            removed.add(key);
+                        }
+                    }
+                }
+            }
+        }
+
+        void delete() {
+            kind = Kind.DELETE;
+            set.clear();
+            removed.clear();
+        }
+
+        Map<String, Object> applyTo(Map<String, Object> current) {
+            if (kind == Kind.REPLACE) {
+                return set;
+            }
+            Map<String, Object> properties = new HashMap<>(current);
+            removed.forEach(properties::remove);
+            properties.putAll(set);
+            return properties;
+        }
+    }
+
+    private static class BatchStats {
+        int applied;
+        int coalesced;
+        int failed;
+        String lastError;
+    }
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @Autowired
+    private ChangeLogCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ChangeSequenceService changeSequenceService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${ingestion.cdc.file:}")
+    private String file;
+
+    @Value("${ingestion.cdc.batch-size:1000}")
+    private int batchSize;
+
+    private final ReentrantLock pollLock = new ReentrantLock();
+
+    /**
+     * Applies everything appended to the change log since the last checkpoint.
+     */
+    @Scheduled(fixedDelayString = "${ingestion.cdc.poll-ms:1000}")
+    public void poll() {
+        if (file == null || file.isBlank() || !pollLock.tryLock()) {
+            return;
+        }
+        try {
+            Path path = Path.of(file).toAbsolutePath().normalize();
+            if (!Files.isRegularFile(path)) {
+                return;
+            }
+            while (applyNextBatch(path)) {
+                // Keep going until the log is caught up
+            }
+        } catch (Exception e) {
+            logger.warn("Change log ingestion stopped, retrying on the next poll: {}", e.getMessage());
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    public List<ChangeLogCheckpoint> getCheckpoints() {
+        return checkpointRepository.findAll();
+    }
+
+    private boolean applyNextBatch(Path path) throws IOException {
+        String source = path.toString();
+        long offset = currentOffset(source, path);
+        List<Line> lines = readLines(path, offset, Math.max(batchSize, 1));
+        if (lines.isEmpty()) {
+            return false;
+        }
+
+        try {
+            apply(source, offset, lines);
+            return true;
+        } catch (RuntimeException e) {
+            if (ObjectBatchWriter.isTransient(e) || lines.size() == 1) {
+                throw e;
+            }
+            logger.warn("Change log batch at byte {} failed, applying its events one by one: {}", offset, e.getMessage());
+        }
+
+        // Isolate the events that fail so they are skipped instead of blocking the log
+        long expected = offset;
+        for (Line line : lines) {
+            long lineOffset = expected;
+            try {
+                apply(source, lineOffset, List.of(line));
+            } catch (RuntimeException e) {
+                if (ObjectBatchWriter.isTransient(e)) {
+                    throw e;
+                }
+                logger.warn("Skipping change event at byte {} of {}: {}", line.start(), source, e.getMessage());
+                BatchStats stats = new BatchStats();
+                stats.failed = 1;
+                stats.lastError = "Byte " + line.start() + ": " + e.getMessage();
+                new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                        advance(source, lineOffset, line.end(), stats));
+            }
+            expected = line.end();
+        }
+        return true;
+    }
+
+    private long currentOffset(String source, Path path) throws IOException {
+        ChangeLogCheckpoint checkpoint = checkpointRepository.findById(source).orElse(null);
+        long offset = checkpoint != null && checkpoint.getCommittedOffset() != null ? checkpoint.getCommittedOffset() : 0;
+        if (offset > Files.size(path)) {
+            // The log was truncated or replaced; start over from its beginning
+            logger.warn("Change log {} is shorter than its checkpoint at byte {}, restarting from the start", source, offset);
+            checkpoint.setCommittedOffset(0L);
+            checkpointRepository.save(checkpoint);
+            return 0;
+        }
+        return offset;
+    }
+
+    private void apply(String source, long startOffset, List<Line> lines) {
+        BatchStats stats = new BatchStats();
+        Map<ChangeKey, Change> changes = coalesce(lines, stats);
+
+        GraphChangeEvent event = new GraphChangeEvent();
+        int rows = Math.max(changes.size(), 1);
+        changeSequenceService.stampBlock(rows, firstSeq -> new TransactionTemplate(transactionManager).execute(status -> {
+            write(changes, firstSeq, event);
+            advance(source, startOffset, lines.get(lines.size() - 1).end(), stats);
+            return null;
+        }));
+
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(event);
+        }
+        logger.debug("Applied {} change events ({} coalesced, {} failed) from {} up to byte {}",
+                stats.applied, stats.coalesced, stats.failed, source, lines.get(lines.size() - 1).end());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<ChangeKey, Change> coalesce(List<Line> lines, BatchStats stats) {
+        Map<ChangeKey, Change> changes = new LinkedHashMap<>();
+        for (Line line : lines) {
+            Map<String, Object> event;
+            try {
+                event = eventReader.readValue(line.bytes());
+            } catch (IOException e) {
+                stats.failed++;
+                stats.lastError = "Byte " + line.start() + ": invalid JSON";
+                continue;
+            }
+            String op = operation(event.get("op"));
+            Object type = event.get("type");
+            Object key = event.get("key");
+            boolean link = "link".equalsIgnoreCase(String.valueOf(event.get("entity")));
+            Map<String, Object> before = event.get("before") instanceof Map<?, ?> m ? (Map<String, Object>) m : null;
+            Map<String, Object> after = event.get("after") instanceof Map<?, ?> m ? (Map<String, Object>) m : null;
+            if (op == null || type == null || key == null || (!op.equals("d") && after == null)) {
+                stats.failed++;
+                stats.lastError = "Byte " + line.start() + ": event needs op, type, key and, unless a delete, after";
+                continue;
+            }
+
+            ChangeKey changeKey = new ChangeKey(link, type.toString(), key.toString());
+            Change change = changes.get(changeKey);
+            if (change == null) {
+                change = new Change();
+                changes.put(changeKey, change);
+            } else {
+                stats.coalesced++;
+            }
+            switch (op) {
+                case "c" -> change.replace(after);
+                case "u" -> change.patch(before, after);
+                default -> change.delete();
+            }
+            if (event.get("source") instanceof Map<?, ?> s) {
+                change.source = s;
+            }
+            if (event.get("target") instanceof Map<?, ?> t) {
+                change.target = t;
+            }
+            stats.applied++;
+        }
+        return changes;
+    }
+
+    private void write(Map<ChangeKey, Change> changes, long firstSeq, GraphChangeEvent event) {
+        Map<ChangeKey, Map<String, Object>> currentObjects = current(CURRENT_OBJECTS, changes, false);
+        Map<ChangeKey, Map<String, Object>> currentLinks = current(CURRENT_LINKS, changes, true);
+
+        List<Map<String, Object>> objectUpserts = new ArrayList<>();
+        List<Map<String, Object>> linkUpserts = new ArrayList<>();
+        List<Map<String, Object>> linkDeletes = new ArrayList<>();
+        List<Map<String, Object>> objectDeletes = new ArrayList<>();
+        long seq = firstSeq;
+        for (Map.Entry<ChangeKey, Change> entry : changes.entrySet()) {
+            ChangeKey key = entry.getKey();
+            Change change = entry.getValue();
+            Map<String, Object> row = new HashMap<>();
+            row.put("type", key.type());
+            row.put("key", key.key());
+            row.put("changeSeq", seq++);
+
+            if (change.kind == Kind.DELETE) {
+                (key.link() ? linkDeletes : objectDeletes).add(row);
+                continue;
+            }
+            Map<ChangeKey, Map<String, Object>> current = key.link() ? currentLinks : currentObjects;
+            Map<String, Object> properties = change.applyTo(current.getOrDefault(key, Map.of()));
+            String propertiesJson = toJson(properties);
+            row.put("propertiesJson", propertiesJson);
+            row.put("id", UUID.nameUUIDFromBytes(((key.link() ? "cdc-link:" : "cdc:") + key.type() + ":" + key.key())
+                    .getBytes(StandardCharsets.UTF_8)).toString());
+            if (key.link()) {
+                if (change.source == null || change.target == null) {
+                    throw new IllegalArgumentException("Link " + key.key() + " needs source and target");
+                }
+                row.put("sourceType", String.valueOf(change.source.get("type")));
+                row.put("sourceKey", String.valueOf(change.source.get("key")));
+                row.put("targetType", String.valueOf(change.target.get("type")));
+                row.put("targetKey", String.valueOf(change.target.get("key")));
+                linkUpserts.add(row);
+            } else {
+                row.put("searchText", ObjectEntity.searchText(properties));
+                row.put("contentHash", ObjectBatchWriter.contentHash(propertiesJson));
+                objectUpserts.add(row);
+            }
+        }
+
+        // Objects before links so a link can reference an object created in the same batch,
+        // and links before object deletes so deleting an endpoint also removes the new link
+        if (!objectUpserts.isEmpty()) {
+            for (Map<String, Object> result : run(UPSERT_OBJECTS, objectUpserts)) {
+                String id = (String) result.get("id");
+                if (Boolean.TRUE.equals(result.get("created"))) {
+                    event.objectCreated((String) result.get("type"), id);
+                } else if (Boolean.TRUE.equals(result.get("changed"))) {
+                    event.objectUpdated(id);
+                }
+            }
+        }
+        if (!linkUpserts.isEmpty()) {
+            Collection<Map<String, Object>> results = run(UPSERT_LINKS, linkUpserts);
+            if (results.size() < linkUpserts.size()) {
+                logger.warn("{} change-log links skipped because an endpoint does not exist",
+                        linkUpserts.size() - results.size());
+            }
+            for (Map<String, Object> result : results) {
+                String id = (String) result.get("id");
+                if (Boolean.TRUE.equals(result.get("created"))) {
+                    event.linkCreated((String) result.get("sourceType"), (String) result.get("linkType"),
+                            (String) result.get("targetType"), id)
+                            .linkEndpoints((String) result.get("sourceId"), (String) result.get("targetId"));
+                } else if (Boolean.TRUE.equals(result.get("changed"))) {
+                    event.linkUpdated(id);
+                }
+            }
+        }
+        if (!linkDeletes.isEmpty()) {
+            for (Map<String, Object> result : run(DELETE_LINKS, linkDeletes)) {
+                event.linkDeleted((String) result.get("sourceType"), (String) result.get("linkType"),
+                        (String) result.get("targetType"), (String) result.get("id"))
+                        .linkEndpoints((String) result.get("sourceId"), (String) result.get("targetId"));
+            }
+        }
+        if (!objectDeletes.isEmpty()) {
+            for (Map<String, Object> result : run(DELETE_OBJECTS, objectDeletes)) {
+                event.objectDeleted((String) result.get("type"), (String) result.get("id"));
+                for (Object edge : (List<?>) result.get("edges")) {
+                    List<?> types = (List<?>) edge;
+                    event.linkDeleted((String) types.get(0), (String) types.get(1), (String) types.get(2), null);
+                }
+            }
+        }
+    }
+
+    private void advance(String source, long expectedOffset, long offset, BatchStats stats) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("source", source);
+        parameters.put("expectedOffset", expectedOffset);
+        parameters.put("offset", offset);
+        parameters.put("applied", stats.applied);
+        parameters.put("coalesced", stats.coalesced);
+        parameters.put("failed", stats.failed);
+        parameters.put("lastError", stats.lastError);
+        if (neo4jClient.query(ADVANCE_CHECKPOINT).bindAll(parameters).fetch().one().isEmpty()) {
+            // Rolls the batch back with the checkpoint
+            throw new IllegalStateException("Change log checkpoint for " + source + " moved past byte " + expectedOffset);
+        }
+    }
+
+    private Map<ChangeKey, Map<String, Object>> current(String query, Map<ChangeKey, Change> changes, boolean links) {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        changes.forEach((key, change) -> {
+            if (key.link() == links && change.kind == Kind.PATCH) {
+                keys.add(Map.of("type", key.type(), "key", key.key()));
+            }
+        });
+        Map<ChangeKey, Map<String, Object>> current = new HashMap<>();
+        if (keys.isEmpty()) {
+            return current;
+        }
+        for (Map<String, Object> row : neo4jClient.query(query).bind(keys).to("keys").fetch().all()) {
+            current.put(new ChangeKey(links, (String) row.get("type"), (String) row.get("key")),
+                    parse((String) row.get("json")));
+        }
+        return current;
+    }
+
+    private Collection<Map<String, Object>> run(String query, List<Map<String, Object>> rows) {
+        return neo4jClient.query(query).bind(rows).to("rows").fetch().all();
+    }
+
+    private static List<Line> readLines(Path path, long offset, int maxLines) throws IOException {
+        List<Line> lines = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.position(offset);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel));
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = offset;
+            long lineStart = offset;
+            int b;
+            while (lines.size() < maxLines && (b = in.read()) >= 0) {
+                position++;
+                if (b == '\n') {
+                    byte[] bytes = line.toByteArray();
+                    if (!isBlank(bytes)) {
+                        lines.add(new Line(lineStart, position, bytes));
+                    } else if (!lines.isEmpty()) {
+                        // Blank lines are consumed along with the event before them
+                        Line last = lines.remove(lines.size() - 1);
+                        lines.add(new Line(last.start(), position, last.bytes()));
+                    }
+                    line.reset();
+                    lineStart = position;
+                } else if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            // A trailing line without a newline may still be being written; it is read on a later poll
+        }
+        return lines;
+    }
+
+    private static boolean isBlank(byte[] bytes) {
+        for (byte b : bytes) {
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String operation(Object op) {
+        if (op == null) {
+            return null;
+        }
+        return switch (op.toString().toLowerCase(Locale.ROOT)) {
+            case "c", "create", "insert", "i", "r", "read", "snapshot" -> "c";
+            case "u", "update" -> "u";
+            case "d", "delete" -> "d";
+            default -> null;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parse(String json) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            return canonicalMapper.readValue(json, Map.class);
+        } catch (JsonProcessingException e) {
+            return Map.of();
+        }
+    }
+
+    private static String toJson(Map<String, Object> properties) {
+        try {
+            return canonicalMapper.writeValueAsString(properties);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize properties", e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.digitaltwin.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.LongFunction;
+
+/**
+ * Hands out the monotonically increasing change sequence stamped on object,
+ * link, action and tombstone writes as {@code changeSeq}.
+ *
+ * The counter lives in this process and is seeded from the highest sequence
+ * in the database on first use, so it assumes a single backend instance writes
+ * to the graph. Sequences still being written are tracked so that readers only
+ * ever see a watermark below which every write has committed.
+ */
+@Service
+public class ChangeSequenceService {
+
+    private static final String CURRENT_MAX =
+            "CALL { " +
+            "  MATCH (o:Object) WHERE o.changeSeq IS NOT NULL RETURN o.changeSeq AS seq ORDER BY seq DESC LIMIT 1 " +
+            "  UNION ALL " +
+            "  MATCH ()-[r:LINKS_TO]->() WHERE r.changeSeq IS NOT NULL RETURN r.changeSeq AS seq ORDER BY seq DESC LIMIT 1 " +
+            "  UNION ALL " +
+            "  MATCH (a:Action) WHERE a.changeSeq IS NOT NULL RETURN a.changeSeq AS seq ORDER BY seq DESC LIMIT 1 " +
+            "  UNION ALL " +
+            "  MATCH (t:Tombstone) WHERE t.changeSeq IS NOT NULL RETURN t.changeSeq AS seq ORDER BY seq DESC LIMIT 1 " +
+            "} RETURN coalesce(max(seq), 0) AS seq";
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    private long current = -1;
+
+    /**
+     * Runs a write with the next sequence number.
+     */
+    public <T> T stamp(LongFunction<T> write) {
+        return stampBlock(1, write);
+    }
+
+    /**
+     * Reserves {@code size} consecutive sequence numbers and runs a write with the first of them.
+     */
+    public <T> T stampBlock(int size, LongFunction<T> write) {
+        long first = reserve(Math.max(size, 1));
+        try {
+            return write.apply(first);
+        } finally {
+            inFlight.remove(first);
+        }
+    }
+
+    /**
+     * Highest sequence for which every write with a lower or equal sequence has finished.
+     */
+    public synchronized long getCommittedWatermark() {
+        ensureInitialized();
+        return inFlight.isEmpty() ? current : inFlight.first() - 1;
+    }
+
+    private synchronized long reserve(int size) {
+        ensureInitialized();
+        long first = current + 1;
+        current += size;
+        inFlight.add(first);
+        return first;
+    }
+
+    private void ensureInitialized() {
+        if (current < 0) {
+            current = neo4jClient.query(CURRENT_MAX).fetchAs(Long.class).one().orElse(0L);
+        }
+    }
+}
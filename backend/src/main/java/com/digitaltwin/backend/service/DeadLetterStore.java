@@ -0,0 +1,213 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.dto.DeadLetter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only JSONL file of records that could not be written, with the
+ * cause. Replaying claims the whole file by renaming it, so records that fail
+ * again during a replay land in a fresh file instead of being read twice.
+ */
+@Service
+public class DeadLetterStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterStore.class);
+
+    private static final ObjectWriter entryWriter = new ObjectMapper().writerFor(DeadLetter.class);
+    private static final ObjectReader entryReader = new ObjectMapper().readerFor(DeadLetter.class);
+
+    @Value("${ingestion.dead-letter.file:${java.io.tmpdir}/digitaltwin-ingestion/dead-letters.jsonl}")
+    private String file;
+
+    @Value("${ingestion.dead-letter.enabled:true}")
+    private boolean enabled;
+
+    private long count;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path path = Path.of(file);
+        Path claimed = claimedPath();
+        // A replay interrupted by a restart leaves its claimed file behind; put it back in the queue
+        if (Files.exists(claimed)) {
+            appendFile(claimed, path);
+            Files.delete(claimed);
+            logger.info("Returned entries of an interrupted dead-letter replay to {}", path);
+        }
+        count = countEntries(path);
+    }
+
+    public synchronized void append(List<DeadLetter> entries) {
+        if (!enabled || entries.isEmpty()) {
+            return;
+        }
+        try {
+            Path path = Path.of(file);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (DeadLetter entry : entries) {
+                    writer.write(entryWriter.writeValueAsString(entry));
+                    writer.newLine();
+                }
+            }
+            count += entries.size();
+        } catch (IOException e) {
+            // Losing the dead letters must not fail the ingestion that produced them
+            logger.error("Failed to write {} dead-letter entries to {}: {}", entries.size(), file, e.getMessage());
+        }
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    /**
+     * The first {@code limit} entries, oldest first.
+     */
+    public synchronized List<DeadLetter> list(int limit) {
+        List<DeadLetter> entries = new ArrayList<>();
+        Path path = Path.of(file);
+        if (!Files.exists(path) || limit <= 0) {
+            return entries;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while (entries.size() < limit && (line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    entries.add(entryReader.readValue(line));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return entries;
+    }
+
+    /**
+     * Takes every queued entry and hands them to {@code handler} in batches. Entries
+     * the handler fails to write should be appended again; the claimed file is
+     * removed once all batches have been handled. Lines that cannot be parsed are
+     * logged and dropped. If the handler throws, its batch and every later entry are
+     * queued again, while batches it already handled are not.
+     *
+     * @return the number of entries handed to the handler
+     */
+    public long drain(int batchSize, Consumer<List<DeadLetter>> handler) throws IOException {
+        Path claimed = claimedPath();
+        synchronized (this) {
+            Path path = Path.of(file);
+            if (Files.exists(claimed)) {
+                throw new IllegalStateException("A dead-letter replay is already running");
+            }
+            if (!Files.exists(path)) {
+                return 0;
+            }
+            Files.move(path, claimed, StandardCopyOption.ATOMIC_MOVE);
+            count = 0;
+        }
+
+        long drained = 0;
+        // Lines of the claimed file up to the end of the last batch the handler finished
+        long handledLines = 0;
+        long lineNumber = 0;
+        List<DeadLetter> batch = new ArrayList<>(batchSize);
+        try {
+            try (BufferedReader reader = Files.newBufferedReader(claimed, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        batch.add(entryReader.readValue(line));
+                    } catch (JsonProcessingException e) {
+                        logger.warn("Dropping unreadable dead-letter entry on line {}: {}", lineNumber, e.getOriginalMessage());
+                        continue;
+                    }
+                    if (batch.size() >= batchSize) {
+                        handler.accept(batch);
+                        drained += batch.size();
+                        handledLines = lineNumber;
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    handler.accept(batch);
+                    drained += batch.size();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Entries of handled batches were written or appended again by the handler already
+            synchronized (this) {
+                appendLinesAfter(claimed, handledLines, Path.of(file));
+                count = countEntries(Path.of(file));
+            }
+            throw e;
+        } finally {
+            Files.deleteIfExists(claimed);
+        }
+        return drained;
+    }
+
+    public synchronized long clear() throws IOException {
+        long cleared = count;
+        Files.deleteIfExists(Path.of(file));
+        count = 0;
+        return cleared;
+    }
+
+    private Path claimedPath() {
+        return Path.of(file + ".replaying");
+    }
+
+    private static long countEntries(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (var lines = Files.lines(path, StandardCharsets.UTF_8)) {
+            return lines.filter(line -> !line.isBlank()).count();
+        }
+    }
+
+    private static void appendLinesAfter(Path from, long skip, Path to) throws IOException {
+        Files.createDirectories(to.toAbsolutePath().getParent());
+        try (var lines = Files.lines(from, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(to, StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (String line : (Iterable<String>) lines.skip(skip)::iterator) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+    }
+
+    private static void appendFile(Path from, Path to) throws IOException {
+        Files.createDirectories(to.toAbsolutePath().getParent());
+        try (var out = Files.newOutputStream(to, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            Files.copy(from, out);
+        }
+    }
+}
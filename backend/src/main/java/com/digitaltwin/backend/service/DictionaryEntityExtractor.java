@@ -0,0 +1,197 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.dto.ExtractedEntity;
+import com.digitaltwin.backend.event.GraphChangeEvent;
+import com.digitaltwin.backend.extraction.AhoCorasick;
+import com.digitaltwin.backend.extraction.EntityExtractor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts mentions of existing objects by matching their names and aliases
+ * with an Aho–Corasick automaton, so a document is scanned once however many
+ * objects the dictionary holds. The dictionary is rebuilt from the graph when
+ * objects have changed, at most once per refresh interval.
+ */
+@Service
+public class DictionaryEntityExtractor implements EntityExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DictionaryEntityExtractor.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String LOAD_DICTIONARY =
+            "MATCH (o:Object) WHERE o.propertiesJson IS NOT NULL %s " +
+            "RETURN o.id AS id, o.type AS type, o.propertiesJson AS json";
+
+    private record Entry(String objectId, String objectType, String name, String pattern, boolean alias) {}
+
+    private record Match(int start, int end, Entry entry) {}
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @Value("${ingestion.extraction.name-properties:name,title,label}")
+    private List<String> nameProperties;
+
+    @Value("${ingestion.extraction.alias-properties:aliases,alias}")
+    private List<String> aliasProperties;
+
+    // Object types whose names are extracted; empty means all types
+    @Value("${ingestion.extraction.types:}")
+    private List<String> types;
+
+    @Value("${ingestion.extraction.min-length:3}")
+    private int minLength;
+
+    @Value("${ingestion.extraction.refresh-seconds:60}")
+    private long refreshSeconds;
+
+    private volatile AhoCorasick<Entry> automaton;
+    private volatile boolean dirty = true;
+    private volatile long builtAt;
+
+    @Override
+    public List<ExtractedEntity> extract(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<Match> candidates = new ArrayList<>();
+        current().search(text, (start, end, entry) -> {
+            if (isWordBoundary(text, start - 1) && isWordBoundary(text, end)) {
+                candidates.add(new Match(start, end, entry));
+            }
+        });
+
+        // Leftmost-longest: a mention of "ACME Corp" is not also a mention of "ACME"
+        candidates.sort(Comparator.comparingInt(Match::start)
+                .thenComparing(Comparator.comparingInt(Match::end).reversed()));
+        List<ExtractedEntity> extracted = new ArrayList<>();
+        int covered = 0;
+        for (int i = 0; i < candidates.size(); ) {
+            Match first = candidates.get(i);
+            int j = i;
+            while (j < candidates.size() && candidates.get(j).start() == first.start()
+                    && candidates.get(j).end() == first.end()) {
+                j++;
+            }
+            if (first.start() >= covered) {
+                // Several objects can share a name; each is reported with a share of the confidence
+                List<Match> sameSpan = candidates.subList(i, j);
+                String matchedText = text.substring(first.start(), first.end());
+                for (Match match : sameSpan) {
+                    extracted.add(new ExtractedEntity(match.entry().objectId(), match.entry().objectType(),
+                            match.entry().name(), matchedText, match.start(), match.end(),
+                            confidence(match, matchedText) / sameSpan.size()));
+                }
+                covered = first.end();
+            }
+            i = j;
+        }
+        return extracted;
+    }
+
+    @EventListener
+    public void onGraphChange(GraphChangeEvent event) {
+        if (event.isStructural() || !event.getChangedObjectIds().isEmpty() || !event.getDeletedObjectIds().isEmpty()) {
+            dirty = true;
+        }
+    }
+
+    private AhoCorasick<Entry> current() {
+        boolean refreshDue = dirty && System.currentTimeMillis() - builtAt >= refreshSeconds * 1000;
+        if (automaton == null || refreshDue) {
+            rebuild();
+        }
+        return automaton;
+    }
+
+    private synchronized void rebuild() {
+        if (automaton != null && (!dirty || System.currentTimeMillis() - builtAt < refreshSeconds * 1000)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        dirty = false;
+
+        String query = String.format(LOAD_DICTIONARY, types.isEmpty() ? "" : "AND o.type IN $types");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("types", types);
+
+        AhoCorasick.Builder<Entry> builder = AhoCorasick.builder();
+        int patterns = 0;
+        for (Map<String, Object> row : neo4jClient.query(query).bindAll(parameters).fetch().all()) {
+            Map<String, Object> properties = parse((String) row.get("json"));
+            String name = firstString(properties, nameProperties);
+            if (name == null) {
+                continue;
+            }
+            String id = (String) row.get("id");
+            String type = (String) row.get("type");
+            if (add(builder, new Entry(id, type, name, name.trim(), false))) {
+                patterns++;
+            }
+            for (String aliasProperty : aliasProperties) {
+                Object aliases = properties.get(aliasProperty);
+                List<?> values = aliases instanceof List<?> list ? list : aliases != null ? List.of(aliases) : List.of();
+                for (Object alias : values) {
+                    if (alias instanceof String s && add(builder, new Entry(id, type, name, s.trim(), true))) {
+                        patterns++;
+                    }
+                }
+            }
+        }
+
+        automaton = builder.build();
+        builtAt = System.currentTimeMillis();
+        logger.info("Built extraction dictionary with {} patterns ({} states) in {} ms",
+                patterns, automaton.size(), builtAt - start);
+    }
+
+    private boolean add(AhoCorasick.Builder<Entry> builder, Entry entry) {
+        if (entry.pattern().length() < minLength) {
+            return false;
+        }
+        builder.add(entry.pattern(), entry);
+        return true;
+    }
+
+    private static double confidence(Match match, String matchedText) {
+        double confidence = match.entry().alias() ? 0.85 : 0.95;
+        return matchedText.equals(match.entry().pattern()) ? confidence + 0.05 : confidence;
+    }
+
+    private static boolean isWordBoundary(String text, int index) {
+        return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+    }
+
+    private static String firstString(Map<String, Object> properties, List<String> names) {
+        for (String name : names) {
+            if (properties.get(name) instanceof String value && !value.isBlank()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parse(String json) {
+        try {
+            return objectMapper.readValue(json, Map.class);
+        } catch (JsonProcessingException e) {
+            return Map.of();
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.model.IngestedFile;
+import com.digitaltwin.backend.model.ObjectEntity;
+import com.digitaltwin.backend.repository.IngestedFileRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingests CSV and JSONL files dropped into a watched directory. Files are read
+ * through memory-mapped slices and split into lines in place; each line is
+ * parsed straight from the mapped bytes and fed to the batch writer. The byte
+ * offset of the last committed chunk is stored per file, so a restart resumes
+ * mid-file and a completed file is never ingested again.
+ *
+ * The object type is taken from the file name up to the first '_' or '.',
+ * e.g. {@code Sensor_2024-06-01.csv} ingests objects of type {@code Sensor}.
+ */
+@Service
+public class DirectoryIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryIngestionService.class);
+
+    private static final ObjectReader recordReader = new ObjectMapper().readerFor(Map.class);
+
+    @Autowired
+    private IngestedFileRepository ingestedFileRepository;
+
+    @Autowired
+    private ObjectBatchWriter objectBatchWriter;
+
+    @Autowired
+    private IngestionProfiler ingestionProfiler;
+
+    // Empty disables directory ingestion
+    @Value("${ingestion.watch.directory:}")
+    private String directory;
+
+    @Value("${ingestion.watch.settle-ms:2000}")
+    private long settleMs;
+
+    @Value("${ingestion.watch.map-slice-bytes:67108864}")
+    private long sliceBytes;
+
+    // Files are processed one at a time on this thread, in the order they settle
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "directory-ingestion");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<Path, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+    private WatchService watchService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (directory == null || directory.isBlank()) {
+            return;
+        }
+        Path dir = Path.of(directory).toAbsolutePath();
+        try {
+            Files.createDirectories(dir);
+            watchService = FileSystems.getDefault().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.error("Cannot watch ingestion directory {}", dir, e);
+            return;
+        }
+
+        // Files dropped while the application was down, or interrupted mid-way
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            files.forEach(this::schedule);
+        } catch (IOException e) {
+            logger.warn("Failed to list ingestion directory {}: {}", dir, e.getMessage());
+        }
+
+        Thread watcher = new Thread(() -> watch(dir), "directory-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        logger.info("Watching {} for CSV and JSONL files", dir);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        executor.shutdownNow();
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    public List<IngestedFile> getFiles() {
+        return ingestedFileRepository.findAll();
+    }
+
+    private void watch(Path dir) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path name) {
+                        schedule(dir.resolve(name));
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * (Re)schedules a file once it has stopped changing, so files still being copied are not read.
+     */
+    private void schedule(Path file) {
+        if (formatOf(file) == null || !Files.isRegularFile(file)) {
+            return;
+        }
+        pending.compute(file, (path, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            return executor.schedule(() -> processWhenSettled(path), settleMs, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void processWhenSettled(Path file) {
+        try {
+            long idleMs = System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis();
+            if (idleMs < settleMs) {
+                schedule(file);
+                return;
+            }
+            pending.remove(file);
+            ingest(file);
+        } catch (IOException e) {
+            pending.remove(file);
+            logger.warn("Skipping {}: {}", file, e.getMessage());
+        } catch (RuntimeException e) {
+            // Nothing reads the scheduled future, so this would otherwise go unnoticed
+            pending.remove(file);
+            logger.error("Failed to ingest {}", file, e);
+        }
+    }
+
+    private void ingest(Path file) throws IOException {
+        String key = file.toAbsolutePath().toString();
+        long size = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+
+        IngestedFile state = ingestedFileRepository.findById(key).orElse(null);
+        boolean resuming = state != null && state.isSameVersion(size, modified);
+        if (resuming && IngestedFile.COMPLETED.equals(state.getStatus())) {
+            return;
+        }
+        if (!resuming) {
+            state = ingestedFileRepository.save(new IngestedFile(key, objectTypeOf(file), size, modified));
+        } else if (IngestedFile.FAILED.equals(state.getStatus())) {
+            // A failed file resumes from its last checkpoint, e.g. after a database outage
+            state.setStatus(IngestedFile.IN_PROGRESS);
+            state.setError(null);
+            state.setCompletedAt(null);
+            state = ingestedFileRepository.save(state);
+        }
+
+        logger.info("Ingesting {} from byte {} of {}", file, state.getCommittedOffset(), size);
+        long start = System.currentTimeMillis();
+        try {
+            state = read(file, state, resuming);
+            state.setStatus(IngestedFile.COMPLETED);
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted() || e instanceof ClosedByInterruptException) {
+                // Stays IN_PROGRESS, so the file resumes from its checkpoint on restart
+                Thread.currentThread().interrupt();
+                logger.info("Ingestion of {} interrupted at byte {}, will resume from there", file,
+                        state.getCommittedOffset());
+                return;
+            }
+            logger.error("Failed to ingest {} at byte {}", file, state.getCommittedOffset(), e);
+            state.setStatus(IngestedFile.FAILED);
+            state.setError(e.getMessage());
+        }
+        state.setCompletedAt(LocalDateTime.now());
+        ingestedFileRepository.save(state);
+        logger.info("Ingested {} in {} ms: {} succeeded, {} failed", file, System.currentTimeMillis() - start,
+                state.getSuccessfulRecords(), state.getFailedRecords());
+    }
+
+    private IngestedFile read(Path file, IngestedFile state, boolean resuming) throws IOException {
+        boolean csv = "csv".equals(formatOf(file));
+        int chunkSize = objectBatchWriter.getChunkSize();
+        // Records committed before an interrupted checkpoint may already exist
+        boolean checkFirstChunk = resuming && state.getCommittedOffset() > 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = state.getSize();
+            LineBuffer line = new LineBuffer();
+            List<String> header = null;
+            long position = state.getCommittedOffset();
+            if (csv) {
+                long headerEnd = readHeader(channel, size, line);
+                header = parseCsv(line.bytes, line.length);
+                position = Math.max(position, headerEnd);
+            }
+
+            List<ObjectEntity> chunk = new ArrayList<>(chunkSize);
+            int parseFailures = 0;
+            while (position < size) {
+                int length = (int) Math.min(Math.min(sliceBytes, Integer.MAX_VALUE), size - position);
+                MappedByteBuffer slice = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean lastSlice = position + length == size;
+                int lineStart = 0;
+
+                for (int i = 0; i <= length; i++) {
+                    boolean endOfLine = i < length ? slice.get(i) == '\n' : lastSlice && lineStart < length;
+                    if (!endOfLine) {
+                        continue;
+                    }
+                    line.load(slice, lineStart, i);
+                    long lineOffset = position + lineStart;
+                    lineStart = Math.min(i + 1, length);
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        Map<String, Object> data = csv ? toRecord(header, parseCsv(line.bytes, line.length))
+                                : recordReader.readValue(line.bytes, 0, line.length);
+                        ingestionProfiler.observe(state.getObjectType(), data);
+                        chunk.add(toObject(state, lineOffset, data));
+                    } catch (JsonProcessingException | IllegalArgumentException e) {
+                        parseFailures++;
+                        logger.debug("Skipping malformed line at byte {} of {}: {}", lineOffset, file, e.getMessage());
+                    }
+                    if (chunk.size() + parseFailures >= chunkSize) {
+                        state = commit(state, chunk, parseFailures, position + lineStart, checkFirstChunk);
+                        checkFirstChunk = false;
+                        chunk.clear();
+                        parseFailures = 0;
+                    }
+                }
+                if (lineStart == 0) {
+                    throw new IOException("Line at byte " + position + " is longer than the map slice size");
+                }
+                // The next slice starts at the first line not yet complete
+                position += lineStart;
+            }
+            return commit(state, chunk, parseFailures, size, checkFirstChunk);
+        }
+    }
+
+    private IngestedFile commit(IngestedFile state, List<ObjectEntity> chunk, int parseFailures, long offset,
+                                boolean skipExisting) {
+        List<ObjectEntity> toWrite = skipExisting ? objectBatchWriter.withoutExisting(chunk) : chunk;
+        ObjectBatchWriter.WriteResult written = objectBatchWriter.write(toWrite);
+
+        state.setSuccessfulRecords(state.getSuccessfulRecords() + chunk.size() - written.getFailedRecords());
+        state.setFailedRecords(state.getFailedRecords() + written.getFailedRecords() + parseFailures);
+        state.setCommittedOffset(offset);
+        ingestedFileRepository.save(state);
+        return state;
+    }
+
+    private long readHeader(FileChannel channel, long size, LineBuffer line) throws IOException {
+        MappedByteBuffer slice = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                Math.min(Math.min(sliceBytes, Integer.MAX_VALUE), size));
+        for (int i = 0; i < slice.limit(); i++) {
+            if (slice.get(i) == '\n') {
+                line.load(slice, 0, i);
+                return i + 1;
+            }
+        }
+        line.load(slice, 0, slice.limit());
+        return slice.limit();
+    }
+
+    // Ids derive from the file version and the line offset so a replayed chunk maps to the same objects
+    private static ObjectEntity toObject(IngestedFile state, long lineOffset, Map<String, Object> data) {
+        ObjectEntity object = new ObjectEntity();
+        String seed = state.getPath() + ":" + state.getLastModified() + ":" + lineOffset;
+        object.setId(UUID.nameUUIDFromBytes(seed.getBytes(StandardCharsets.UTF_8)).toString());
+        object.setType(state.getObjectType());
+        object.setProperties(data);
+        return object;
+    }
+
+    private static Map<String, Object> toRecord(List<String> header, List<String> values) {
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " columns, found " + values.size());
+        }
+        Map<String, Object> record = new LinkedHashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            record.put(header.get(i), typed(values.get(i)));
+        }
+        return record;
+    }
+
+    // CSV has no types; numbers are stored as numbers so they compare and aggregate as such
+    private static Object typed(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        char first = value.charAt(0);
+        // Leading zeros mark codes (zip codes, part numbers), not numbers
+        boolean leadingZero = first == '0' && value.length() > 1 && Character.isDigit(value.charAt(1));
+        if (!leadingZero && (Character.isDigit(first) || first == '-' || first == '.')) {
+            try {
+                return value.contains(".") || value.contains("e") || value.contains("E")
+                        ? (Object) Double.parseDouble(value) : (Object) Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return value;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Splits one CSV line (RFC 4180 quoting) into fields, decoding each field straight from the line bytes.
+     */
+    private static List<String> parseCsv(byte[] bytes, int length) {
+        List<String> fields = new ArrayList<>();
+        int i = 0;
+        while (i <= length) {
+            if (i < length && bytes[i] == '"') {
+                StringBuilder field = new StringBuilder();
+                int segment = ++i;
+                while (i < length) {
+                    if (bytes[i] == '"') {
+                        field.append(new String(bytes, segment, i - segment, StandardCharsets.UTF_8));
+                        if (i + 1 < length && bytes[i + 1] == '"') {
+                            field.append('"');
+                            i += 2;
+                            segment = i;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    i++;
+                }
+                fields.add(field.toString());
+                while (i < length && bytes[i] != ',') {
+                    i++;
+                }
+            } else {
+                int start = i;
+                while (i < length && bytes[i] != ',') {
+                    i++;
+                }
+                fields.add(new String(bytes, start, i - start, StandardCharsets.UTF_8).trim());
+            }
+            i++;
+        }
+        return fields;
+    }
+
+    private static String formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".csv")) {
+            return "csv";
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return "jsonl";
+        }
+        return null;
+    }
+
+    private static String objectTypeOf(Path file) {
+        String name = file.getFileName().toString();
+        int end = 0;
+        while (end < name.length() && name.charAt(end) != '_' && name.charAt(end) != '.') {
+            end++;
+        }
+        return name.substring(0, end);
+    }
+
+    /**
+     * Reusable buffer holding the current line, so lines are not copied into Strings.
+     */
+    private static final class LineBuffer {
+        private byte[] bytes = new byte[8192];
+        private int length;
+
+        void load(MappedByteBuffer slice, int from, int to) {
+            if (to > from && slice.get(to - 1) == '\r') {
+                to--;
+            }
+            length = to - from;
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            slice.get(from, bytes, 0, length);
+        }
+
+        boolean isBlank() {
+            for (int i = 0; i < length; i++) {
+                if (!Character.isWhitespace(bytes[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.dto.GraphChanges;
+import com.digitaltwin.backend.model.ObjectEntity;
+import com.digitaltwin.backend.repository.ActionRepository;
+import com.digitaltwin.backend.repository.LinkRepository;
+import com.digitaltwin.backend.repository.ObjectRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves "what changed since sequence X" from the {@code changeSeq} stamped on
+ * every write, so clients refresh in time proportional to the change rather
+ * than reloading the whole graph.
+ */
+@Service
+public class GraphChangesService {
+
+    private static final String CHANGES_SINCE =
+            "CALL { " +
+            "  MATCH (o:Object) WHERE o.changeSeq > $since AND o.changeSeq <= $until " +
+            "  RETURN 'OBJECT' AS kind, o.id AS id, o.changeSeq AS seq " +
+            "  UNION ALL " +
+            "  MATCH ()-[r:LINKS_TO]->() WHERE r.changeSeq > $since AND r.changeSeq <= $until " +
+            "  RETURN 'LINK' AS kind, r.id AS id, r.changeSeq AS seq " +
+            "  UNION ALL " +
+            "  MATCH (a:Action) WHERE a.changeSeq > $since AND a.changeSeq <= $until " +
+            "  RETURN 'ACTION' AS kind, a.id AS id, a.changeSeq AS seq " +
+            "  UNION ALL " +
+            "  MATCH (t:Tombstone) WHERE t.changeSeq > $since AND t.changeSeq <= $until " +
+            "  RETURN 'DELETED_' + t.entityType AS kind, t.entityId AS id, t.changeSeq AS seq " +
+            "} " +
+            "RETURN kind, id, seq ORDER BY seq LIMIT $fetch";
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @Autowired
+    private ChangeSequenceService changeSequenceService;
+
+    @Autowired
+    private ObjectRepository objectRepository;
+
+    @Autowired
+    private LinkRepository linkRepository;
+
+    @Autowired
+    private ActionRepository actionRepository;
+
+    @Value("${graph.changes.default-limit:1000}")
+    private int defaultLimit;
+
+    @Value("${graph.changes.max-limit:10000}")
+    private int maxLimit;
+
+    public GraphChanges getChangesSince(long since, Integer limit) {
+        int effectiveLimit = Math.min(limit != null && limit > 0 ? limit : defaultLimit, maxLimit);
+        long until = changeSequenceService.getCommittedWatermark();
+
+        List<Map<String, Object>> rows = new ArrayList<>(neo4jClient.query(CHANGES_SINCE)
+                .bindAll(Map.of("since", since, "until", until, "fetch", effectiveLimit + 1))
+                .fetch().all());
+
+        long toSequence = until;
+        boolean hasMore = rows.size() > effectiveLimit;
+        if (hasMore) {
+            // Never split the entries of one sequence across pages
+            long boundary = seq(rows.get(effectiveLimit));
+            List<Map<String, Object>> complete = rows.subList(0, effectiveLimit).stream()
+                    .filter(row -> seq(row) < boundary).toList();
+            if (complete.isEmpty()) {
+                // One sequence holds more than a page, e.g. an object deleted with all its links;
+                // it is returned whole, so this page is larger than the limit
+                rows = new ArrayList<>(neo4jClient.query(CHANGES_SINCE)
+                        .bindAll(Map.of("since", boundary - 1, "until", boundary, "fetch", Long.MAX_VALUE))
+                        .fetch().all());
+                toSequence = boundary;
+                hasMore = boundary < until;
+            } else {
+                rows = complete;
+                toSequence = boundary - 1;
+            }
+        }
+
+        List<String> objectIds = new ArrayList<>();
+        List<String> linkIds = new ArrayList<>();
+        List<String> actionIds = new ArrayList<>();
+        List<String> deletedObjectIds = new ArrayList<>();
+        List<String> deletedLinkIds = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            String id = (String) row.get("id");
+            switch ((String) row.get("kind")) {
+                case "OBJECT" -> objectIds.add(id);
+                case "LINK" -> linkIds.add(id);
+                case "ACTION" -> actionIds.add(id);
+                case "DELETED_OBJECT" -> deletedObjectIds.add(id);
+                case "DELETED_LINK" -> deletedLinkIds.add(id);
+                default -> { }
+            }
+        }
+
+        List<ObjectEntity> created = new ArrayList<>();
+        List<ObjectEntity> updated = new ArrayList<>();
+        if (!objectIds.isEmpty()) {
+            for (ObjectEntity object : objectRepository.findByIds(objectIds)) {
+                boolean isNew = object.getCreatedSeq() != null && object.getCreatedSeq() > since;
+                (isNew ? created : updated).add(object);
+            }
+        }
+
+        GraphChanges changes = new GraphChanges();
+        changes.setFromSequence(since);
+        changes.setToSequence(toSequence);
+        changes.setHasMore(hasMore);
+        changes.setCreatedObjects(created);
+        changes.setUpdatedObjects(updated);
+        changes.setDeletedObjectIds(deletedObjectIds);
+        changes.setChangedLinks(linkIds.isEmpty() ? List.of() : linkRepository.findLinksByIds(linkIds));
+        changes.setDeletedLinkIds(deletedLinkIds);
+        changes.setActions(actionIds.isEmpty() ? List.of() : actionRepository.findAllById(actionIds));
+        return changes;
+    }
+
+    private static long seq(Map<String, Object> row) {
+        return ((Number) row.get("seq")).longValue();
+    }
+}
@@ -0,0 +1,190 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.dto.ClusterDetail;
+import com.digitaltwin.backend.dto.ClusterEdge;
+import com.digitaltwin.backend.dto.ClusterNode;
+import com.digitaltwin.backend.dto.GraphOverview;
+import com.digitaltwin.backend.event.GraphChangeEvent;
+import com.digitaltwin.backend.event.GraphChangeEvent.EdgeKey;
+import com.digitaltwin.backend.model.ObjectEntity;
+import com.digitaltwin.backend.repository.LinkRepository;
+import com.digitaltwin.backend.repository.ObjectRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains a level-of-detail view of the graph with objects clustered by type.
+ * The overview is computed once with two aggregation queries and then kept up
+ * to date from {@link GraphChangeEvent} deltas, so serving it costs the same
+ * regardless of how many objects the twin holds.
+ */
+@Service
+public class GraphOverviewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GraphOverviewService.class);
+
+    static final String UNTYPED = "(untyped)";
+
+    private static final String COUNT_OBJECTS_BY_TYPE =
+            "MATCH (o:Object) RETURN o.type AS type, count(*) AS count";
+
+    private static final String COUNT_LINKS_BY_CLUSTER =
+            "MATCH (s:Object)-[r:LINKS_TO]->(t:Object) " +
+            "RETURN s.type AS sourceType, r.type AS linkType, t.type AS targetType, count(*) AS count";
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @Autowired
+    private ObjectRepository objectRepository;
+
+    @Autowired
+    private LinkRepository linkRepository;
+
+    @Value("${graph.overview.max-age-seconds:600}")
+    private long maxAgeSeconds;
+
+    @Value("${graph.overview.cluster-limit:500}")
+    private int defaultClusterLimit;
+
+    private final Map<String, Long> objectCounts = new HashMap<>();
+    private final Map<EdgeKey, Long> linkCounts = new HashMap<>();
+    private LocalDateTime computedAt;
+    private boolean stale = true;
+
+    public synchronized GraphOverview getOverview() {
+        ensureFresh();
+
+        GraphOverview overview = new GraphOverview();
+        overview.setClusters(objectCounts.entrySet().stream()
+                .map(e -> new ClusterNode(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingLong(ClusterNode::getObjectCount).reversed())
+                .collect(Collectors.toList()));
+        overview.setEdges(linkCounts.entrySet().stream()
+                .map(e -> toClusterEdge(e.getKey(), e.getValue()))
+                .collect(Collectors.toList()));
+        overview.setTotalObjects(objectCounts.values().stream().mapToLong(Long::longValue).sum());
+        overview.setTotalLinks(linkCounts.values().stream().mapToLong(Long::longValue).sum());
+        overview.setComputedAt(computedAt);
+        return overview;
+    }
+
+    public synchronized Map<String, Long> getObjectCountsByType() {
+        ensureFresh();
+        return new HashMap<>(objectCounts);
+    }
+
+    public synchronized Map<String, Long> getLinkCountsByType() {
+        ensureFresh();
+        Map<String, Long> byLinkType = new HashMap<>();
+        linkCounts.forEach((key, count) -> byLinkType.merge(key.linkType(), count, Long::sum));
+        return byLinkType;
+    }
+
+    public ClusterDetail getCluster(String type, Integer limit) {
+        int effectiveLimit = limit != null && limit > 0 ? limit : defaultClusterLimit;
+
+        List<ObjectEntity> members = objectRepository.findByTypeLimited(type, effectiveLimit);
+        List<String> memberIds = members.stream().map(ObjectEntity::getId).collect(Collectors.toList());
+
+        long objectCount;
+        List<ClusterEdge> externalEdges = new ArrayList<>();
+        synchronized (this) {
+            ensureFresh();
+            objectCount = objectCounts.getOrDefault(type, 0L);
+            linkCounts.forEach((key, count) -> {
+                boolean touches = key.sourceType().equals(type) || key.targetType().equals(type);
+                boolean internal = key.sourceType().equals(type) && key.targetType().equals(type);
+                if (touches && !internal) {
+                    externalEdges.add(toClusterEdge(key, count));
+                }
+            });
+        }
+
+        ClusterDetail detail = new ClusterDetail();
+        detail.setCluster(new ClusterNode(type, objectCount));
+        detail.setObjects(members);
+        detail.setLinks(memberIds.isEmpty() ? List.of() : linkRepository.findLinksAmong(type, memberIds));
+        detail.setExternalEdges(externalEdges);
+        detail.setTruncated(objectCount > members.size());
+        return detail;
+    }
+
+    public synchronized void invalidate() {
+        stale = true;
+    }
+
+    @EventListener
+    public synchronized void onGraphChange(GraphChangeEvent event) {
+        if (stale) {
+            // Will be picked up by the next full computation
+            return;
+        }
+        if (event.isStructural()) {
+            stale = true;
+            return;
+        }
+        event.getObjectCountDeltas().forEach((type, delta) ->
+                objectCounts.compute(normalize(type), (k, v) -> positiveOrNull((v == null ? 0 : v) + delta)));
+        event.getLinkCountDeltas().forEach((key, delta) ->
+                linkCounts.compute(normalize(key), (k, v) -> positiveOrNull((v == null ? 0 : v) + delta)));
+    }
+
+    private void ensureFresh() {
+        boolean expired = computedAt == null
+                || computedAt.plus(Duration.ofSeconds(maxAgeSeconds)).isBefore(LocalDateTime.now());
+        if (stale || expired) {
+            recompute();
+        }
+    }
+
+    private void recompute() {
+        long start = System.currentTimeMillis();
+        objectCounts.clear();
+        linkCounts.clear();
+
+        neo4jClient.query(COUNT_OBJECTS_BY_TYPE).fetch().all().forEach(row ->
+                objectCounts.merge(normalize((String) row.get("type")), (Long) row.get("count"), Long::sum));
+
+        neo4jClient.query(COUNT_LINKS_BY_CLUSTER).fetch().all().forEach(row -> {
+            EdgeKey key = normalize(new EdgeKey(
+                    (String) row.get("sourceType"), (String) row.get("linkType"), (String) row.get("targetType")));
+            linkCounts.merge(key, (Long) row.get("count"), Long::sum);
+        });
+
+        computedAt = LocalDateTime.now();
+        stale = false;
+        logger.debug("Recomputed graph overview with {} clusters in {} ms",
+                objectCounts.size(), System.currentTimeMillis() - start);
+    }
+
+    private static ClusterEdge toClusterEdge(EdgeKey key, long count) {
+        return new ClusterEdge("cluster:" + key.sourceType(), "cluster:" + key.targetType(), key.linkType(), count);
+    }
+
+    private static Long positiveOrNull(long value) {
+        return value > 0 ? value : null;
+    }
+
+    private static String normalize(String type) {
+        return type == null ? UNTYPED : type;
+    }
+
+    private static EdgeKey normalize(EdgeKey key) {
+        return new EdgeKey(normalize(key.sourceType()), normalize(key.linkType()), normalize(key.targetType()));
+    }
+}
@@ -0,0 +1,381 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.model.IngestionJob;
+import com.digitaltwin.backend.model.ObjectEntity;
+import com.digitaltwin.backend.repository.IngestionJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs NDJSON ingestion in the background. Uploads are spooled to disk and
+ * processed by a bounded worker pool, one chunk per transaction. After each
+ * chunk the job's byte offset is saved as a checkpoint, and jobs interrupted by
+ * a restart are resumed from their checkpoint when the application starts.
+ *
+ * The ids of written objects are appended to a per-job file instead of being
+ * kept on the job, so a multi-million-record job can be downloaded as ids
+ * without holding them in memory.
+ */
+@Service
+public class IngestionJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionJobService.class);
+
+    private static final ObjectReader recordReader = new ObjectMapper().readerFor(Map.class);
+
+    @Autowired
+    private IngestionJobRepository ingestionJobRepository;
+
+    @Autowired
+    private ObjectBatchWriter objectBatchWriter;
+
+    @Autowired
+    private IngestionProfiler ingestionProfiler;
+
+    @Value("${ingestion.jobs.pool-size:2}")
+    private int poolSize;
+
+    @Value("${ingestion.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${ingestion.jobs.max-errors:100}")
+    private int maxErrors;
+
+    @Value("${ingestion.jobs.spool-dir:${java.io.tmpdir}/digitaltwin-ingestion}")
+    private String spoolDir;
+
+    @Value("${ingestion.jobs.record-ids:true}")
+    private boolean recordIds;
+
+    private final Set<String> cancelRequested = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), r -> {
+                    Thread thread = new Thread(r, "ingestion-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Running jobs stop mid-chunk and resume from their last checkpoint on the next start
+        executor.shutdownNow();
+    }
+
+    /**
+     * Spools the upload to disk and queues it for processing.
+     *
+     * @throws IllegalStateException if the job queue is full
+     */
+    public IngestionJob submit(InputStream body, String objectType, String submittedBy) throws IOException {
+        String id = UUID.randomUUID().toString();
+        Path directory = Path.of(spoolDir);
+        Files.createDirectories(directory);
+        Path spool = directory.resolve(id + ".ndjson");
+        long size = Files.copy(body, spool, StandardCopyOption.REPLACE_EXISTING);
+
+        IngestionJob job = ingestionJobRepository.save(
+                new IngestionJob(id, objectType, submittedBy, spool.toString(), size));
+        try {
+            executor.execute(() -> run(id));
+        } catch (RejectedExecutionException e) {
+            Files.deleteIfExists(spool);
+            ingestionJobRepository.delete(job);
+            throw new IllegalStateException("Ingestion job queue is full, try again later");
+        }
+        logger.info("Queued ingestion job {} ({} bytes of {})", id, size, objectType);
+        return job;
+    }
+
+    public Optional<IngestionJob> getJob(String id) {
+        return ingestionJobRepository.findById(id);
+    }
+
+    /**
+     * Whether {@code username} submitted the job; false if it does not exist, so
+     * other users cannot tell which job ids exist.
+     */
+    public boolean isSubmittedBy(String id, String username) {
+        return ingestionJobRepository.findById(id)
+                .map(job -> job.getSubmittedBy() != null && job.getSubmittedBy().equals(username))
+                .orElse(false);
+    }
+
+    /**
+     * File with the ids of the objects a job has written, one per line.
+     */
+    public Optional<Path> getIdsFile(String id) {
+        return ingestionJobRepository.findById(id)
+                .map(this::idsPath)
+                .filter(Files::exists);
+    }
+
+    /**
+     * Requests cancellation. A running job stops after its current chunk;
+     * records already committed are kept.
+     */
+    public Optional<IngestionJob> cancel(String id) {
+        return ingestionJobRepository.findById(id).map(job -> {
+            if (!job.isFinished()) {
+                cancelRequested.add(id);
+                if (IngestionJob.QUEUED.equals(job.getStatus())) {
+                    finish(job, IngestionJob.CANCELLED);
+                }
+            }
+            return job;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        for (IngestionJob job : ingestionJobRepository.findByStatusIn(
+                List.of(IngestionJob.QUEUED, IngestionJob.RUNNING))) {
+            try {
+                executor.execute(() -> run(job.getId()));
+                logger.info("Resuming ingestion job {} from byte {}", job.getId(), job.getBytesProcessed());
+            } catch (RejectedExecutionException e) {
+                logger.warn("Ingestion job queue is full, job {} stays queued until the next restart", job.getId());
+            }
+        }
+    }
+
+    private void run(String jobId) {
+        IngestionJob job = ingestionJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.isFinished()) {
+            cancelRequested.remove(jobId);
+            return;
+        }
+        if (cancelRequested.remove(jobId)) {
+            finish(job, IngestionJob.CANCELLED);
+            return;
+        }
+        Path spool = Path.of(job.getSpoolPath());
+        if (!Files.exists(spool)) {
+            addError(job, "Spool file is missing");
+            finish(job, IngestionJob.FAILED);
+            return;
+        }
+
+        // A crash between a chunk commit and its checkpoint means that chunk may already exist
+        boolean checkFirstChunk = IngestionJob.RUNNING.equals(job.getStatus());
+        job.setStatus(IngestionJob.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job.setFinishedAt(null);
+        job.setBytesAtStart(job.getBytesProcessed());
+        job.setRecordsAtStart(job.getRecordsProcessed());
+        job = ingestionJobRepository.save(job);
+
+        int chunkSize = objectBatchWriter.getChunkSize();
+        try {
+            truncateIds(job);
+        } catch (IOException e) {
+            logger.warn("Failed to reset the ids file of job {}: {}", jobId, e.getMessage());
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(spool))) {
+            in.skipNBytes(job.getBytesProcessed());
+            long offset = job.getBytesProcessed();
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            List<ObjectEntity> chunk = new ArrayList<>(chunkSize);
+            int records = 0;
+            int parseFailures = 0;
+            int read;
+
+            while ((read = readLine(in, line)) >= 0) {
+                long lineStart = offset;
+                offset += read;
+                byte[] bytes = line.toByteArray();
+                if (isBlank(bytes)) {
+                    continue;
+                }
+                records++;
+                try {
+                    Map<String, Object> data = recordReader.readValue(bytes);
+                    ingestionProfiler.observe(job.getObjectType(), data);
+                    chunk.add(toObject(job, lineStart, data));
+                } catch (JsonProcessingException e) {
+                    parseFailures++;
+                    addError(job, "Byte " + lineStart + ": invalid JSON: " + e.getOriginalMessage());
+                }
+
+                if (records >= chunkSize) {
+                    job = commitChunk(job, chunk, records, parseFailures, offset, checkFirstChunk);
+                    checkFirstChunk = false;
+                    chunk.clear();
+                    records = 0;
+                    parseFailures = 0;
+                    if (cancelRequested.remove(jobId)) {
+                        finish(job, IngestionJob.CANCELLED);
+                        return;
+                    }
+                }
+            }
+            if (offset > job.getBytesProcessed()) {
+                job = commitChunk(job, chunk, records, parseFailures, offset, checkFirstChunk);
+            }
+            finish(job, IngestionJob.COMPLETED);
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                logger.info("Ingestion job {} interrupted, will resume from its checkpoint", jobId);
+                return;
+            }
+            logger.error("Ingestion job {} failed", jobId, e);
+            addError(job, "Job failed: " + e.getMessage());
+            finish(job, IngestionJob.FAILED);
+        }
+    }
+
+    private IngestionJob commitChunk(IngestionJob job, List<ObjectEntity> chunk, int records, int parseFailures,
+                                     long offset, boolean skipExisting) throws IOException {
+        List<String> ids = new ArrayList<>();
+        List<ObjectEntity> toWrite = chunk;
+        if (skipExisting && !chunk.isEmpty()) {
+            toWrite = objectBatchWriter.withoutExisting(chunk);
+            // Written before the crash; their ids were dropped with the rest of the unfinished chunk
+            Set<ObjectEntity> remaining = Collections.newSetFromMap(new IdentityHashMap<>());
+            remaining.addAll(toWrite);
+            chunk.stream().filter(object -> !remaining.contains(object)).forEach(object -> ids.add(object.getId()));
+        }
+        long alreadyCommitted = ids.size();
+
+        ObjectBatchWriter.WriteResult written = objectBatchWriter.write(toWrite, object -> ids.add(object.getId()));
+        written.getErrors().forEach(error -> addError(job, error));
+        appendIds(job, ids);
+
+        job.setRecordsProcessed(job.getRecordsProcessed() + records);
+        job.setSuccessfulRecords(job.getSuccessfulRecords() + written.getWrittenRecords()
+                + written.getUnchangedRecords() + alreadyCommitted);
+        job.setUnchangedRecords(job.getUnchangedRecords() + written.getUnchangedRecords());
+        job.setFailedRecords(job.getFailedRecords() + written.getFailedRecords() + parseFailures);
+        job.setBytesProcessed(offset);
+        return ingestionJobRepository.save(job);
+    }
+
+    private void finish(IngestionJob job, String status) {
+        job.setStatus(status);
+        job.setFinishedAt(LocalDateTime.now());
+        ingestionJobRepository.save(job);
+        try {
+            Files.deleteIfExists(Path.of(job.getSpoolPath()));
+        } catch (IOException e) {
+            logger.warn("Failed to delete spool file {}: {}", job.getSpoolPath(), e.getMessage());
+        }
+        logger.info("Ingestion job {} {}: {} succeeded, {} failed", job.getId(), status,
+                job.getSuccessfulRecords(), job.getFailedRecords());
+    }
+
+    private Path idsPath(IngestionJob job) {
+        return Path.of(spoolDir).resolve(job.getId() + ".ids");
+    }
+
+    private void appendIds(IngestionJob job, List<String> ids) throws IOException {
+        if (!recordIds) {
+            return;
+        }
+        Path path = idsPath(job);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (String id : ids) {
+                writer.write(id);
+                writer.newLine();
+            }
+        }
+        job.setIdsBytes(Files.size(path));
+    }
+
+    // Ids appended after the last checkpoint belong to a chunk that will be written again
+    private void truncateIds(IngestionJob job) throws IOException {
+        Path path = idsPath(job);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(job.getIdsBytes() != null ? job.getIdsBytes() : 0);
+        }
+    }
+
+    private void addError(IngestionJob job, String error) {
+        if (job.getErrors().size() < maxErrors) {
+            job.getErrors().add(error);
+        }
+    }
+
+    // Ids derive from the job and the record's position so a replayed chunk maps to the same objects
+    private static ObjectEntity toObject(IngestionJob job, long lineStart, Map<String, Object> data) {
+        ObjectEntity object = new ObjectEntity();
+        object.setId(UUID.nameUUIDFromBytes((job.getId() + ":" + lineStart).getBytes(StandardCharsets.UTF_8)).toString());
+        object.setType(job.getObjectType());
+        object.setProperties(data);
+        return object;
+    }
+
+    /**
+     * Reads one line into {@code line} without its terminator.
+     * Returns the number of bytes consumed, or -1 at the end of the stream.
+     */
+    private static int readLine(InputStream in, ByteArrayOutputStream line) throws IOException {
+        line.reset();
+        int consumed = 0;
+        int b;
+        while ((b = in.read()) >= 0) {
+            consumed++;
+            if (b == '\n') {
+                return consumed;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return consumed > 0 ? consumed : -1;
+    }
+
+    private static boolean isBlank(byte[] bytes) {
+        for (byte b : bytes) {
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,247 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.model.ObjectEntity;
+import com.digitaltwin.backend.pipeline.PipelineStage;
+import com.digitaltwin.backend.pipeline.PipelineStage.StageMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams NDJSON through a parse → validate/transform → encode → write
+ * pipeline. Each stage runs on its own threads behind a bounded queue, so
+ * parsing and JSON encoding overlap with the database writes, and several
+ * writer threads can have transactions open at once. Per-stage queue depth,
+ * throughput and utilization show which stage is the bottleneck.
+ */
+@Service
+public class IngestionPipelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionPipelineService.class);
+
+    private static final ObjectReader recordReader = new ObjectMapper().readerFor(Map.class);
+
+    private record Line(long number, String text) {}
+
+    private record Record(long number, Map<String, Object> data) {}
+
+    private record Candidate(long number, ObjectEntity object, Map<String, Object> data) {}
+
+    @Autowired
+    private ObjectBatchWriter objectBatchWriter;
+
+    @Autowired
+    private IngestionProfiler ingestionProfiler;
+
+    @Value("${ingestion.pipeline.parse-threads:2}")
+    private int parseThreads;
+
+    @Value("${ingestion.pipeline.transform-threads:1}")
+    private int transformThreads;
+
+    @Value("${ingestion.pipeline.encode-threads:2}")
+    private int encodeThreads;
+
+    @Value("${ingestion.pipeline.write-threads:2}")
+    private int writeThreads;
+
+    @Value("${ingestion.pipeline.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${ingestion.pipeline.max-errors:1000}")
+    private int maxErrors;
+
+    // Every run starts its own stage threads, so the number of runs at once is capped
+    @Value("${ingestion.pipeline.max-concurrent-runs:4}")
+    private int maxConcurrentRuns;
+
+    private Semaphore runPermits;
+
+    private final Map<String, List<PipelineStage<?, ?>>> activeRuns = new ConcurrentHashMap<>();
+    private volatile List<StageMetrics> lastRunMetrics = List.of();
+
+    @PostConstruct
+    public void init() {
+        runPermits = new Semaphore(Math.max(maxConcurrentRuns, 1));
+    }
+
+    /**
+     * @throws IllegalStateException if {@code ingestion.pipeline.max-concurrent-runs} pipelines are already running
+     */
+    public IngestionService.IngestionResult ingest(InputStream input, String objectType)
+            throws IOException, InterruptedException {
+        if (!runPermits.tryAcquire()) {
+            throw new IllegalStateException("Too many ingestion pipelines running, try again later");
+        }
+        try {
+            return run(input, objectType);
+        } finally {
+            runPermits.release();
+        }
+    }
+
+    private IngestionService.IngestionResult run(InputStream input, String objectType)
+            throws IOException, InterruptedException {
+        RunState state = new RunState();
+        int chunkSize = objectBatchWriter.getChunkSize();
+        int parseBatch = 256;
+
+        PipelineStage<Line, Record> parse = new PipelineStage<>("parse", parseThreads, parseBatch, queueCapacity,
+                (lines, emit) -> {
+                    for (Line line : lines) {
+                        try {
+                            emit.accept(new Record(line.number(), recordReader.readValue(line.text())));
+                        } catch (JsonProcessingException e) {
+                            state.fail("Line " + line.number() + ": invalid JSON: " + e.getOriginalMessage());
+                        }
+                    }
+                },
+                (lines, e) -> state.fail(lines.size(), "Parse failed: " + e.getMessage()));
+
+        PipelineStage<Record, Candidate> transform = new PipelineStage<>("transform", transformThreads, parseBatch,
+                queueCapacity,
+                (records, emit) -> {
+                    for (Record record : records) {
+                        if (record.data() == null || record.data().isEmpty()) {
+                            state.fail("Line " + record.number() + ": empty record");
+                            continue;
+                        }
+                        ingestionProfiler.observe(objectType, record.data());
+                        ObjectEntity object = new ObjectEntity();
+                        object.setId(UUID.randomUUID().toString());
+                        object.setType(objectType);
+                        emit.accept(new Candidate(record.number(), object, record.data()));
+                    }
+                },
+                (records, e) -> state.fail(records.size(), "Transform failed: " + e.getMessage()));
+
+        PipelineStage<Candidate, ObjectEntity> encode = new PipelineStage<>("encode", encodeThreads, parseBatch,
+                queueCapacity,
+                (candidates, emit) -> {
+                    for (Candidate candidate : candidates) {
+                        try {
+                            candidate.object().setProperties(candidate.data());
+                            objectBatchWriter.encode(candidate.object(), candidate.data());
+                            emit.accept(candidate.object());
+                        } catch (RuntimeException e) {
+                            state.fail("Line " + candidate.number() + ": " + e.getMessage());
+                        }
+                    }
+                },
+                (candidates, e) -> state.fail(candidates.size(), "Encode failed: " + e.getMessage()));
+
+        PipelineStage<ObjectEntity, Void> write = new PipelineStage<>("write", writeThreads, chunkSize,
+                queueCapacity,
+                (objects, emit) -> {
+                    ObjectBatchWriter.WriteResult written = objectBatchWriter.write(objects);
+                    state.successful.addAndGet(written.getWrittenRecords() + written.getUnchangedRecords());
+                    state.unchanged.addAndGet(written.getUnchangedRecords());
+                    state.failed.addAndGet(written.getFailedRecords());
+                    written.getErrors().forEach(state::addError);
+                },
+                (objects, e) -> state.fail(objects.size(), "Write failed: " + e.getMessage()));
+
+        parse.then(transform).then(encode).then(write);
+        List<PipelineStage<?, ?>> stages = List.of(parse, transform, encode, write);
+        String runId = UUID.randomUUID().toString();
+        activeRuns.put(runId, stages);
+        stages.forEach(PipelineStage::start);
+
+        long start = System.currentTimeMillis();
+        boolean completed = false;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String text;
+            long lineNumber = 0;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (!text.isBlank()) {
+                    state.total.incrementAndGet();
+                    // Blocks while the pipeline is full, which throttles the upload
+                    parse.put(new Line(lineNumber, text));
+                }
+            }
+            parse.finish();
+            write.awaitCompletion();
+            completed = true;
+        } finally {
+            if (!completed) {
+                // The end marker may never have been queued; records already written stay written
+                stages.forEach(PipelineStage::abort);
+            }
+            lastRunMetrics = stages.stream().map(PipelineStage::getMetrics).toList();
+            activeRuns.remove(runId);
+        }
+
+        long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+        logger.info("Pipelined {} records of type {} in {} ms ({} records/s)",
+                state.total.get(), objectType, elapsed, state.total.get() * 1000L / elapsed);
+
+        IngestionService.IngestionResult result = new IngestionService.IngestionResult();
+        result.setTotalRecords(state.total.get());
+        result.setSuccessfulRecords(state.successful.get());
+        result.setUnchangedRecords(state.unchanged.get());
+        result.setFailedRecords(state.failed.get());
+        result.setErrors(new ArrayList<>(state.errors));
+        result.setDurationMs(elapsed);
+        return result;
+    }
+
+    /**
+     * Stage metrics of the pipelines currently running and of the last one that finished.
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, List<StageMetrics>> active = new HashMap<>();
+        activeRuns.forEach((runId, stages) ->
+                active.put(runId, stages.stream().map(PipelineStage::getMetrics).toList()));
+
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("active", active);
+        metrics.put("lastRun", lastRunMetrics);
+        return metrics;
+    }
+
+    private class RunState {
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger successful = new AtomicInteger();
+        private final AtomicInteger unchanged = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger errorCount = new AtomicInteger();
+
+        void fail(String error) {
+            fail(1, error);
+        }
+
+        void fail(int records, String error) {
+            failed.addAndGet(records);
+            addError(error);
+        }
+
+        void addError(String error) {
+            if (errorCount.incrementAndGet() <= maxErrors) {
+                errors.add(error);
+            }
+        }
+    }
+}
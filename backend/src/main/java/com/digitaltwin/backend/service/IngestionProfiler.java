@@ -0,0 +1,205 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.dto.KeyCount;
+import com.digitaltwin.backend.dto.PropertyProfile;
+import com.digitaltwin.backend.dto.TypeProfile;
+import com.digitaltwin.backend.profiling.HyperLogLog;
+import com.digitaltwin.backend.profiling.SpaceSaving;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Profiles ingested records per object type as they arrive: for each
+ * top-level property the presence ratio, value kinds, numeric range, string
+ * lengths, a HyperLogLog distinct count and space-saving top values. Memory
+ * per property is fixed, and the number of types and properties is capped,
+ * so profiling a feed of any size costs the same.
+ */
+@Service
+public class IngestionProfiler {
+
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    @Value("${ingestion.profiling.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ingestion.profiling.max-types:50}")
+    private int maxTypes;
+
+    @Value("${ingestion.profiling.max-properties:100}")
+    private int maxProperties;
+
+    // 2^precision bytes per property; 11 gives about 2.3% error in 2 KB
+    @Value("${ingestion.profiling.hll-precision:11}")
+    private int hllPrecision;
+
+    @Value("${ingestion.profiling.top-k:10}")
+    private int topK;
+
+    @Value("${ingestion.profiling.top-k-capacity:50}")
+    private int topKCapacity;
+
+    private final Map<String, TypeStats> types = new ConcurrentHashMap<>();
+
+    public void observe(String type, Map<String, Object> record) {
+        if (!enabled || type == null || record == null) {
+            return;
+        }
+        TypeStats stats = types.get(type);
+        if (stats == null) {
+            if (types.size() >= maxTypes) {
+                return;
+            }
+            stats = types.computeIfAbsent(type, t -> new TypeStats());
+        }
+        stats.observe(record);
+    }
+
+    public List<TypeProfile> getProfiles() {
+        List<TypeProfile> profiles = new ArrayList<>();
+        types.forEach((type, stats) -> profiles.add(stats.toProfile(type)));
+        profiles.sort(Comparator.comparing(TypeProfile::getType));
+        return profiles;
+    }
+
+    public Optional<TypeProfile> getProfile(String type) {
+        return Optional.ofNullable(types.get(type)).map(stats -> stats.toProfile(type));
+    }
+
+    public boolean reset(String type) {
+        return types.remove(type) != null;
+    }
+
+    private class TypeStats {
+        private final Map<String, PropertyStats> properties = new LinkedHashMap<>();
+        private long records;
+        private long untrackedValues;
+
+        synchronized void observe(Map<String, Object> record) {
+            records++;
+            long now = System.currentTimeMillis();
+            for (Map.Entry<String, Object> property : record.entrySet()) {
+                PropertyStats stats = properties.get(property.getKey());
+                if (stats == null) {
+                    if (properties.size() >= maxProperties) {
+                        untrackedValues++;
+                        continue;
+                    }
+                    stats = new PropertyStats(now);
+                    properties.put(property.getKey(), stats);
+                }
+                stats.observe(property.getValue(), now);
+            }
+        }
+
+        synchronized TypeProfile toProfile(String type) {
+            TypeProfile profile = new TypeProfile();
+            profile.setType(type);
+            profile.setRecords(records);
+            profile.setUntrackedValues(untrackedValues);
+            List<PropertyProfile> propertyProfiles = new ArrayList<>(properties.size());
+            properties.forEach((key, stats) -> propertyProfiles.add(stats.toProfile(key, records)));
+            profile.setProperties(propertyProfiles);
+            return profile;
+        }
+    }
+
+    private class PropertyStats {
+        private final HyperLogLog distinct = new HyperLogLog(hllPrecision);
+        private final SpaceSaving frequent = new SpaceSaving(topKCapacity);
+        private final Map<String, Long> kinds = new HashMap<>();
+        private final long firstSeenAt;
+        private long lastSeenAt;
+        private long present;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private int minLength = Integer.MAX_VALUE;
+        private int maxLength = -1;
+
+        PropertyStats(long now) {
+            this.firstSeenAt = now;
+        }
+
+        void observe(Object value, long now) {
+            present++;
+            lastSeenAt = now;
+            kinds.merge(kindOf(value), 1L, Long::sum);
+            if (value instanceof Number number) {
+                min = Math.min(min, number.doubleValue());
+                max = Math.max(max, number.doubleValue());
+            } else if (value instanceof String string) {
+                minLength = Math.min(minLength, string.length());
+                maxLength = Math.max(maxLength, string.length());
+            }
+            // Nested values are counted by kind only
+            if (value == null || value instanceof Map || value instanceof List) {
+                return;
+            }
+            String text = value.toString();
+            distinct.add(text);
+            frequent.add(text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) : text);
+        }
+
+        PropertyProfile toProfile(String key, long records) {
+            PropertyProfile profile = new PropertyProfile();
+            profile.setKey(key);
+            profile.setPresentCount(present);
+            profile.setPresenceRatio(records > 0 ? (double) present / records : 0);
+            profile.setKinds(new HashMap<>(kinds));
+            if (maxLength >= 0) {
+                profile.setMinLength(minLength);
+                profile.setMaxLength(maxLength);
+            }
+            if (min <= max) {
+                profile.setMin(min);
+                profile.setMax(max);
+            }
+            profile.setDistinctEstimate(distinct.estimate());
+            // Guaranteed counts, so values that only inherited an evicted counter's count drop out
+            profile.setTopValues(frequent.top(topKCapacity).stream()
+                    .map(entry -> new KeyCount(entry.value(), entry.count() - entry.error()))
+                    .filter(count -> count.getCount() > 0)
+                    .sorted(Comparator.comparingLong(KeyCount::getCount).reversed())
+                    .limit(topK)
+                    .toList());
+            profile.setFirstSeenAt(firstSeenAt);
+            profile.setLastSeenAt(lastSeenAt);
+            return profile;
+        }
+    }
+
+    private static String kindOf(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof String) {
+            return "string";
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof BigInteger) {
+            return "integer";
+        }
+        if (value instanceof Number) {
+            return "decimal";
+        }
+        if (value instanceof Boolean) {
+            return "boolean";
+        }
+        if (value instanceof Map) {
+            return "object";
+        }
+        if (value instanceof List) {
+            return "array";
+        }
+        return "other";
+    }
+}
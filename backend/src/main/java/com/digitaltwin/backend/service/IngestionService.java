@@ -1,163 +1,260 @@
 package com.digitaltwin.backend.service;
 
+import com.digitaltwin.backend.dto.DeadLetter;
+import com.digitaltwin.backend.dto.ExtractedEntity;
+import com.digitaltwin.backend.extraction.EntityExtractor;
 import com.digitaltwin.backend.model.ObjectEntity;
 import com.digitaltwin.backend.repository.ObjectRepository;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class IngestionService {
 
+    private static final int MAX_STORED_OFFSETS = 50;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * What a batch ingestion returns besides its counts and timings.
+     */
+    public enum ResultMode {
+        OBJECTS,  // every written object, as before
+        IDS,      // only the ids of written objects
+        SUMMARY   // nothing per record
+    }
+
     @Autowired
     private ObjectRepository objectRepository;
 
     @Autowired
     private ObjectService objectService;
 
+    @Autowired
+    private ObjectBatchWriter objectBatchWriter;
+
+    @Autowired
+    private RelationshipDiscoveryService relationshipDiscoveryService;
+
+    @Autowired
+    private IngestionPipelineService ingestionPipelineService;
+
+    @Autowired
+    private EntityExtractor entityExtractor;
+
+    @Autowired
+    private LinkService linkService;
+
+    @Autowired
+    private DeadLetterStore deadLetterStore;
+
+    @Autowired
+    private IngestionProfiler ingestionProfiler;
+
+    @Value("${ingestion.max-errors:100}")
+    private int maxErrors;
+
     /**
      * Ingest structured data from various sources
      */
     public List<ObjectEntity> ingestStructuredData(String sourceType, List<Map<String, Object>> data) {
-        List<ObjectEntity> ingestedObjects = new ArrayList<>();
-
-        for (Map<String, Object> item : data) {
-            ObjectEntity object = new ObjectEntity();
-            object.setId(UUID.randomUUID().toString());
-            object.setType(sourceType);
-            object.setProperties(item);
-            ingestedObjects.add(objectService.saveObject(object));
-        }
-
-        return ingestedObjects;
+        return objectBatchWriter.write(toObjects(data, sourceType)).getWritten();
     }
 
     /**
-     * Ingest unstructured text data with entity extraction
-     * This is a placeholder for LLM-powered entity extraction
+     * Ingest unstructured text: the text is stored as an object of {@code sourceType}
+     * and linked with MENTIONS to every existing object the extractor finds in it.
+     * Returns the document object followed by the mentioned objects.
      */
     public List<ObjectEntity> ingestUnstructuredData(String text, String sourceType) {
-        List<ObjectEntity> extractedEntities = new ArrayList<>();
-
-        // Placeholder for LLM entity extraction
-        // In a real implementation, this would call an LLM service to extract entities
-        List<Map<String, Object>> mockEntities = extractEntitiesWithLLM(text);
+        List<ExtractedEntity> extractions = entityExtractor.extract(text);
+
+        ObjectEntity document = new ObjectEntity();
+        document.setId(UUID.randomUUID().toString());
+        document.setType(sourceType);
+        document.setProperties(Map.of("text", text, "length", text.length()));
+        document = objectService.saveObject(document);
+
+        Map<String, List<ExtractedEntity>> byObject = extractions.stream()
+                .collect(Collectors.groupingBy(ExtractedEntity::getObjectId, LinkedHashMap::new, Collectors.toList()));
+        for (Map.Entry<String, List<ExtractedEntity>> mentions : byObject.entrySet()) {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("mentions", mentions.getValue().size());
+            properties.put("offsets", mentions.getValue().stream()
+                    .limit(MAX_STORED_OFFSETS)
+                    .map(e -> List.of(e.getStart(), e.getEnd()))
+                    .collect(Collectors.toList()));
+            properties.put("confidence", mentions.getValue().stream()
+                    .mapToDouble(ExtractedEntity::getConfidence).max().orElse(0));
+            linkService.createLink("MENTIONS", document.getId(), mentions.getKey(), properties);
+        }
 
-        for (Map<String, Object> entity : mockEntities) {
-            ObjectEntity object = new ObjectEntity();
-            object.setId(UUID.randomUUID().toString());
-            object.setType(sourceType);
-            object.setProperties(entity);
-            extractedEntities.add(objectService.saveObject(object));
+        List<ObjectEntity> result = new ArrayList<>();
+        result.add(document);
+        if (!byObject.isEmpty()) {
+            result.addAll(objectRepository.findByIds(new ArrayList<>(byObject.keySet())));
         }
+        return result;
+    }
 
-        return extractedEntities;
+    /**
+     * Extract entity mentions from several documents in parallel without storing anything
+     */
+    public List<List<ExtractedEntity>> extractEntities(List<String> documents) {
+        return documents.parallelStream()
+                .map(entityExtractor::extract)
+                .collect(Collectors.toList());
     }
 
     /**
-     * Mock LLM entity extraction - replace with actual LLM integration
+     * Create relationships between ingested objects that share property values
      */
-    private List<Map<String, Object>> extractEntitiesWithLLM(String text) {
-        // This is a placeholder implementation
-        // In production, this would call an LLM API (OpenAI, Anthropic, etc.)
-
-        List<Map<String, Object>> entities = new ArrayList<>();
-
-        // Simple keyword-based extraction as placeholder
-        String[] keywords = {"person", "company", "product", "location", "event"};
-
-        for (String keyword : keywords) {
-            if (text.toLowerCase().contains(keyword)) {
-                Map<String, Object> entity = new HashMap<>();
-                entity.put("name", keyword + "_extracted");
-                entity.put("type", keyword);
-                entity.put("confidence", 0.85);
-                entity.put("source_text", text.substring(0, Math.min(100, text.length())));
-                entities.add(entity);
-            }
-        }
+    public int createRelationshipsFromIngestedData(List<ObjectEntity> objects) {
+        return relationshipDiscoveryService.discover(objects);
+    }
 
-        return entities;
+    /**
+     * Batch ingest data with progress tracking
+     */
+    public IngestionResult batchIngest(List<Map<String, Object>> batchData, String objectType) {
+        return batchIngest(batchData, objectType, ResultMode.OBJECTS);
     }
 
     /**
-     * Create relationships between ingested objects based on common properties
+     * Batch ingest data, returning written objects, their ids or only counts depending on
+     * {@code mode}. Entities are built one chunk at a time, so in the ids and summary modes
+     * only the current chunk's entities are held alongside the request body.
      */
-    public void createRelationshipsFromIngestedData(List<ObjectEntity> objects) {
-        // Group objects by type
-        Map<String, List<ObjectEntity>> objectsByType = objects.stream()
-                .collect(Collectors.groupingBy(ObjectEntity::getType));
-
-        // Create relationships between related objects
-        for (Map.Entry<String, List<ObjectEntity>> entry : objectsByType.entrySet()) {
-            String type = entry.getKey();
-            List<ObjectEntity> typeObjects = entry.getValue();
-
-            // Create relationships within the same type if they share properties
-            for (int i = 0; i < typeObjects.size(); i++) {
-                for (int j = i + 1; j < typeObjects.size(); j++) {
-                    ObjectEntity obj1 = typeObjects.get(i);
-                    ObjectEntity obj2 = typeObjects.get(j);
-
-                    if (haveCommonProperties(obj1, obj2)) {
-                        createRelationship(obj1.getId(), obj2.getId(), "RELATED_TO",
-                                Map.of("relationship_type", "common_properties"));
-                    }
+    public IngestionResult batchIngest(List<Map<String, Object>> batchData, String objectType, ResultMode mode) {
+        long start = System.currentTimeMillis();
+        IngestionResult result = new IngestionResult();
+        result.setTotalRecords(batchData.size());
+        result.setErrors(new ArrayList<>());
+        result.setChunks(new ArrayList<>());
+
+        List<ObjectEntity> ingested = mode == ResultMode.OBJECTS ? new ArrayList<>() : null;
+        List<String> ids = mode == ResultMode.IDS ? new ArrayList<>() : null;
+        Consumer<ObjectEntity> onWritten = object -> {
+            if (ingested != null) {
+                ingested.add(object);
+            } else if (ids != null) {
+                ids.add(object.getId());
+            }
+        };
+
+        // Records are written in chunks, one transaction per chunk
+        int chunkSize = objectBatchWriter.getChunkSize();
+        for (int from = 0; from < batchData.size(); from += chunkSize) {
+            List<Map<String, Object>> slice = batchData.subList(from, Math.min(from + chunkSize, batchData.size()));
+            ObjectBatchWriter.WriteResult written = objectBatchWriter.write(toObjects(slice, objectType), onWritten);
+
+            result.setSuccessfulRecords(result.getSuccessfulRecords()
+                    + written.getWrittenRecords() + written.getUnchangedRecords());
+            result.setUnchangedRecords(result.getUnchangedRecords() + written.getUnchangedRecords());
+            result.setFailedRecords(result.getFailedRecords() + written.getFailedRecords());
+            for (String error : written.getErrors()) {
+                if (result.getErrors().size() < maxErrors) {
+                    result.getErrors().add(error);
                 }
             }
+            for (ObjectBatchWriter.ChunkReport chunk : written.getChunks()) {
+                result.getChunks().add(new ObjectBatchWriter.ChunkReport(result.getChunks().size(), chunk.getRecords(),
+                        chunk.getFailedRecords(), chunk.getUnchangedRecords(), chunk.getDurationMs()));
+            }
         }
-    }
-
-    private boolean haveCommonProperties(ObjectEntity obj1, ObjectEntity obj2) {
-        Set<String> keys1 = obj1.getProperties().keySet();
-        Set<String> keys2 = obj2.getProperties().keySet();
 
-        return !Collections.disjoint(keys1, keys2);
+        result.setIngestedObjects(ingested);
+        result.setIngestedIds(ids);
+        result.setDurationMs(System.currentTimeMillis() - start);
+        return result;
     }
 
-    private void createRelationship(String sourceId, String targetId, String type, Map<String, Object> properties) {
-        // This would use the LinkService to create relationships
-        // For now, this is a placeholder
+    /**
+     * Ingest newline-delimited JSON read incrementally from a stream.
+     * Records flow through a staged pipeline with bounded queues, so memory use
+     * does not depend on the upload size and a full pipeline throttles the upload.
+     * Ingested objects are not echoed back since their number is unbounded.
+     */
+    public IngestionResult streamIngest(InputStream input, String objectType) throws IOException, InterruptedException {
+        return ingestionPipelineService.ingest(input, objectType);
     }
 
     /**
-     * Batch ingest data with progress tracking
+     * Writes the dead-lettered records again. Records that fail again go back to the
+     * dead-letter store; those already written by an interrupted replay are skipped.
      */
-    public IngestionResult batchIngest(List<Map<String, Object>> batchData, String objectType) {
+    public IngestionResult replayDeadLetters() throws IOException {
         IngestionResult result = new IngestionResult();
-        result.setTotalRecords(batchData.size());
-
-        List<ObjectEntity> successful = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-
-        for (Map<String, Object> data : batchData) {
-            try {
-                ObjectEntity object = new ObjectEntity();
-                object.setId(UUID.randomUUID().toString());
-                object.setType(objectType);
-                object.setProperties(data);
-                successful.add(objectService.saveObject(object));
-            } catch (Exception e) {
-                errors.add("Failed to ingest record: " + e.getMessage());
+        result.setErrors(new ArrayList<>());
+
+        long replayed = deadLetterStore.drain(objectBatchWriter.getChunkSize(), entries -> {
+            List<ObjectEntity> objects = objectBatchWriter.withoutExisting(
+                    entries.stream().map(IngestionService::fromDeadLetter).toList());
+            ObjectBatchWriter.WriteResult written = objectBatchWriter.write(objects);
+
+            result.setSuccessfulRecords(result.getSuccessfulRecords() + entries.size() - written.getFailedRecords());
+            result.setUnchangedRecords(result.getUnchangedRecords() + written.getUnchangedRecords());
+            result.setFailedRecords(result.getFailedRecords() + written.getFailedRecords());
+            for (String error : written.getErrors()) {
+                if (result.getErrors().size() < maxErrors) {
+                    result.getErrors().add(error);
+                }
             }
-        }
+        });
+        result.setTotalRecords((int) replayed);
+        return result;
+    }
 
-        result.setSuccessfulRecords(successful.size());
-        result.setFailedRecords(errors.size());
-        result.setErrors(errors);
-        result.setIngestedObjects(successful);
+    @SuppressWarnings("unchecked")
+    private static ObjectEntity fromDeadLetter(DeadLetter entry) {
+        ObjectEntity object = new ObjectEntity();
+        object.setId(entry.getObjectId());
+        object.setType(entry.getObjectType());
+        try {
+            object.setProperties(entry.getPropertiesJson() != null
+                    ? objectMapper.readValue(entry.getPropertiesJson(), Map.class)
+                    : new HashMap<>());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Dead-letter entry " + entry.getObjectId() + " has invalid properties", e);
+        }
+        return object;
+    }
 
-        return result;
+    private List<ObjectEntity> toObjects(List<Map<String, Object>> records, String objectType) {
+        List<ObjectEntity> objects = new ArrayList<>(records.size());
+        for (Map<String, Object> data : records) {
+            ObjectEntity object = new ObjectEntity();
+            object.setId(UUID.randomUUID().toString());
+            object.setType(objectType);
+            object.setProperties(data);
+            objects.add(object);
+            ingestionProfiler.observe(objectType, data);
+        }
+        return objects;
     }
 
     public static class IngestionResult {
         private int totalRecords;
         private int successfulRecords;
+        private int unchangedRecords;
         private int failedRecords;
         private List<String> errors;
+        private long durationMs;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
         private List<ObjectEntity> ingestedObjects;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private List<String> ingestedIds;
+        private List<ObjectBatchWriter.ChunkReport> chunks;
 
         // Getters and setters
         public int getTotalRecords() { return totalRecords; }
@@ -166,13 +263,25 @@ public class IngestionService {
         public int getSuccessfulRecords() { return successfulRecords; }
         public void setSuccessfulRecords(int successfulRecords) { this.successfulRecords = successfulRecords; }
 
+        public int getUnchangedRecords() { return unchangedRecords; }
+        public void setUnchangedRecords(int unchangedRecords) { this.unchangedRecords = unchangedRecords; }
+
         public int getFailedRecords() { return failedRecords; }
         public void setFailedRecords(int failedRecords) { this.failedRecords = failedRecords; }
 
         public List<String> getErrors() { return errors; }
         public void setErrors(List<String> errors) { this.errors = errors; }
 
+        public long getDurationMs() { return durationMs; }
+        public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
         public List<ObjectEntity> getIngestedObjects() { return ingestedObjects; }
         public void setIngestedObjects(List<ObjectEntity> ingestedObjects) { this.ingestedObjects = ingestedObjects; }
+
+        public List<String> getIngestedIds() { return ingestedIds; }
+        public void setIngestedIds(List<String> ingestedIds) { this.ingestedIds = ingestedIds; }
+
+        public List<ObjectBatchWriter.ChunkReport> getChunks() { return chunks; }
+        public void setChunks(List<ObjectBatchWriter.ChunkReport> chunks) { this.chunks = chunks; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,367 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.event.GraphChangeEvent;
+import com.digitaltwin.backend.layout.BarnesHutLayout;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Computes force-directed layout coordinates on the server and persists them
+ * as {@code x}/{@code y} on each object, so clients render stable positions
+ * without running a layout in the browser. A full layout runs on demand;
+ * object and link changes are folded in incrementally by refining only the
+ * affected nodes against their pinned neighbors.
+ */
+@Service
+public class LayoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LayoutService.class);
+
+    private static final String LOAD_POSITIONS = "MATCH (o:Object) RETURN o.id AS id, o.x AS x, o.y AS y";
+
+    private static final String LOAD_EDGES = "MATCH (s:Object)-[:LINKS_TO]->(t:Object) RETURN s.id AS source, t.id AS target";
+
+    private static final String LOAD_NEIGHBORHOOD =
+            "MATCH (o:Object) WHERE o.id IN $ids " +
+            "OPTIONAL MATCH (o)-[:LINKS_TO]-(n:Object) " +
+            "RETURN o.id AS id, o.x AS x, o.y AS y, " +
+            "collect(DISTINCT CASE WHEN n IS NULL THEN null ELSE {id: n.id, x: n.x, y: n.y} END) AS neighbors";
+
+    private static final String SAVE_POSITIONS =
+            "UNWIND $rows AS row MATCH (o:Object {id: row.id}) SET o.x = row.x, o.y = row.y";
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @Value("${graph.layout.iterations:300}")
+    private int iterations;
+
+    @Value("${graph.layout.incremental-iterations:50}")
+    private int incrementalIterations;
+
+    @Value("${graph.layout.ideal-edge-length:80}")
+    private double idealEdgeLength;
+
+    @Value("${graph.layout.parallelism:0}")
+    private int parallelism;
+
+    @Value("${graph.layout.write-batch-size:5000}")
+    private int writeBatchSize;
+
+    @Value("${graph.layout.incremental-batch-size:1000}")
+    private int incrementalBatchSize;
+
+    private final Set<String> pendingObjectIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingRelinkedIds = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock layoutLock = new ReentrantLock();
+    private final ExecutorService fullLayoutExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "layout-full");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ForkJoinPool pool;
+    private volatile boolean running;
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastDurationMs;
+    private volatile int lastNodeCount;
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fullLayoutExecutor.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    public LayoutStatus getStatus() {
+        LayoutStatus status = new LayoutStatus();
+        status.setRunning(running);
+        status.setLastRunAt(lastRunAt);
+        status.setLastDurationMs(lastDurationMs);
+        status.setLastNodeCount(lastNodeCount);
+        status.setPendingUpdates(pendingObjectIds.size() + pendingRelinkedIds.size());
+        return status;
+    }
+
+    /**
+     * Schedules a full layout of the object graph unless one is already running.
+     */
+    public synchronized LayoutStatus recomputeAsync() {
+        if (!running) {
+            running = true;
+            fullLayoutExecutor.submit(() -> {
+                try {
+                    recompute();
+                } catch (Exception e) {
+                    logger.error("Full layout failed", e);
+                } finally {
+                    running = false;
+                }
+            });
+        }
+        return getStatus();
+    }
+
+    public void recompute() {
+        layoutLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+
+            List<String> ids = new ArrayList<>();
+            List<double[]> positions = new ArrayList<>();
+            neo4jClient.query(LOAD_POSITIONS).fetch().all().forEach(row -> {
+                ids.add((String) row.get("id"));
+                positions.add(new double[]{toDouble(row.get("x")), toDouble(row.get("y"))});
+            });
+
+            int n = ids.size();
+            Map<String, Integer> index = new HashMap<>(n * 2);
+            double[] x = new double[n];
+            double[] y = new double[n];
+            double spread = idealEdgeLength * Math.sqrt(Math.max(n, 1));
+            for (int i = 0; i < n; i++) {
+                index.put(ids.get(i), i);
+                double[] p = positions.get(i);
+                // Keep previous coordinates as the starting point so reruns stay stable
+                x[i] = Double.isNaN(p[0]) ? randomOffset(spread) : p[0];
+                y[i] = Double.isNaN(p[1]) ? randomOffset(spread) : p[1];
+            }
+            positions.clear();
+
+            List<int[]> edges = new ArrayList<>();
+            neo4jClient.query(LOAD_EDGES).fetch().all().forEach(row -> {
+                Integer s = index.get((String) row.get("source"));
+                Integer t = index.get((String) row.get("target"));
+                if (s != null && t != null && !s.equals(t)) {
+                    edges.add(new int[]{s, t});
+                }
+            });
+
+            runLayout(x, y, new boolean[n], edges, iterations);
+            savePositions(ids, x, y, null);
+
+            lastRunAt = LocalDateTime.now();
+            lastDurationMs = System.currentTimeMillis() - start;
+            lastNodeCount = n;
+            logger.info("Computed layout for {} objects and {} links in {} ms", n, edges.size(), lastDurationMs);
+        } finally {
+            layoutLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onGraphChange(GraphChangeEvent event) {
+        pendingObjectIds.addAll(event.getChangedObjectIds());
+        pendingRelinkedIds.addAll(event.getRelinkedObjectIds());
+        pendingObjectIds.removeAll(event.getDeletedObjectIds());
+        pendingRelinkedIds.removeAll(event.getDeletedObjectIds());
+    }
+
+    /**
+     * Places new objects and refines the neighborhoods of relinked ones.
+     * Neighbors outside the pending set stay pinned so the rest of the layout is untouched.
+     */
+    @Scheduled(fixedDelayString = "${graph.layout.incremental-interval-ms:2000}")
+    public void applyIncrementalUpdates() {
+        if ((pendingObjectIds.isEmpty() && pendingRelinkedIds.isEmpty()) || !layoutLock.tryLock()) {
+            return;
+        }
+        try {
+            Set<String> relinked = drain(pendingRelinkedIds, incrementalBatchSize);
+            Set<String> batch = new HashSet<>(relinked);
+            batch.addAll(drain(pendingObjectIds, incrementalBatchSize));
+            refine(batch, relinked);
+        } catch (Exception e) {
+            logger.warn("Incremental layout update failed: {}", e.getMessage());
+        } finally {
+            layoutLock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void refine(Set<String> batch, Set<String> relinked) {
+        Map<String, Integer> index = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+        List<double[]> positions = new ArrayList<>();
+        List<Boolean> movable = new ArrayList<>();
+        List<int[]> edges = new ArrayList<>();
+
+        for (Map<String, Object> row : neo4jClient.query(LOAD_NEIGHBORHOOD).bind(batch).to("ids").fetch().all()) {
+            String id = (String) row.get("id");
+            double ox = toDouble(row.get("x"));
+            boolean move = Double.isNaN(ox) || relinked.contains(id);
+            int o = addNode(id, ox, toDouble(row.get("y")), move, index, ids, positions, movable);
+
+            for (Map<String, Object> neighbor : (List<Map<String, Object>>) row.get("neighbors")) {
+                String neighborId = (String) neighbor.get("id");
+                double nx = toDouble(neighbor.get("x"));
+                int n = addNode(neighborId, nx, toDouble(neighbor.get("y")),
+                        Double.isNaN(nx) || batch.contains(neighborId), index, ids, positions, movable);
+                if (n != o) {
+                    edges.add(new int[]{o, n});
+                }
+            }
+        }
+
+        int size = ids.size();
+        double[] x = new double[size];
+        double[] y = new double[size];
+        boolean[] pinned = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = positions.get(i)[0];
+            y[i] = positions.get(i)[1];
+            pinned[i] = !movable.get(i);
+        }
+        placeUnpositioned(x, y, pinned, edges);
+
+        if (!movable.contains(true)) {
+            return;
+        }
+        runLayout(x, y, pinned, edges, incrementalIterations);
+        savePositions(ids, x, y, pinned);
+    }
+
+    private static int addNode(String id, double x, double y, boolean move, Map<String, Integer> index,
+                               List<String> ids, List<double[]> positions, List<Boolean> movable) {
+        Integer existing = index.get(id);
+        if (existing != null) {
+            if (move) {
+                movable.set(existing, true);
+            }
+            return existing;
+        }
+        index.put(id, ids.size());
+        ids.add(id);
+        positions.add(new double[]{x, y});
+        movable.add(move);
+        return ids.size() - 1;
+    }
+
+    /**
+     * Starts nodes without coordinates at the centroid of their positioned neighbors.
+     */
+    private void placeUnpositioned(double[] x, double[] y, boolean[] pinned, List<int[]> edges) {
+        double[] sumX = new double[x.length];
+        double[] sumY = new double[x.length];
+        int[] count = new int[x.length];
+        for (int[] edge : edges) {
+            for (int side = 0; side < 2; side++) {
+                int self = edge[side];
+                int other = edge[1 - side];
+                if (Double.isNaN(x[self]) && !Double.isNaN(x[other])) {
+                    sumX[self] += x[other];
+                    sumY[self] += y[other];
+                    count[self]++;
+                }
+            }
+        }
+        for (int i = 0; i < x.length; i++) {
+            if (Double.isNaN(x[i]) || Double.isNaN(y[i])) {
+                double jitter = idealEdgeLength / 2;
+                x[i] = count[i] > 0 ? sumX[i] / count[i] + randomOffset(jitter) : randomOffset(idealEdgeLength * 10);
+                y[i] = count[i] > 0 ? sumY[i] / count[i] + randomOffset(jitter) : randomOffset(idealEdgeLength * 10);
+                pinned[i] = false;
+            }
+        }
+    }
+
+    private void runLayout(double[] x, double[] y, boolean[] pinned, List<int[]> edges, int iterationCount) {
+        int[] sources = new int[edges.size()];
+        int[] targets = new int[edges.size()];
+        for (int e = 0; e < edges.size(); e++) {
+            sources[e] = edges.get(e)[0];
+            targets[e] = edges.get(e)[1];
+        }
+        new BarnesHutLayout(x, y, pinned, sources, targets)
+                .idealEdgeLength(idealEdgeLength)
+                .run(iterationCount, pool);
+    }
+
+    private void savePositions(List<String> ids, double[] x, double[] y, boolean[] pinned) {
+        List<Map<String, Object>> rows = new ArrayList<>(Math.min(ids.size(), writeBatchSize));
+        for (int i = 0; i < ids.size(); i++) {
+            if (pinned != null && pinned[i]) {
+                continue;
+            }
+            rows.add(Map.of("id", ids.get(i), "x", x[i], "y", y[i]));
+            if (rows.size() >= writeBatchSize) {
+                neo4jClient.query(SAVE_POSITIONS).bind(rows).to("rows").run();
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            neo4jClient.query(SAVE_POSITIONS).bind(rows).to("rows").run();
+        }
+    }
+
+    private static Set<String> drain(Set<String> source, int max) {
+        Set<String> drained = new HashSet<>();
+        for (String id : source) {
+            if (drained.size() >= max) {
+                break;
+            }
+            if (source.remove(id)) {
+                drained.add(id);
+            }
+        }
+        return drained;
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+
+    private static double randomOffset(double range) {
+        return ThreadLocalRandom.current().nextDouble(-range, range);
+    }
+
+    public static class LayoutStatus {
+        private boolean running;
+        private LocalDateTime lastRunAt;
+        private long lastDurationMs;
+        private int lastNodeCount;
+        private int pendingUpdates;
+
+        // Getters and setters
+        public boolean isRunning() { return running; }
+        public void setRunning(boolean running) { this.running = running; }
+
+        public LocalDateTime getLastRunAt() { return lastRunAt; }
+        public void setLastRunAt(LocalDateTime lastRunAt) { this.lastRunAt = lastRunAt; }
+
+        public long getLastDurationMs() { return lastDurationMs; }
+        public void setLastDurationMs(long lastDurationMs) { this.lastDurationMs = lastDurationMs; }
+
+        public int getLastNodeCount() { return lastNodeCount; }
+        public void setLastNodeCount(int lastNodeCount) { this.lastNodeCount = lastNodeCount; }
+
+        public int getPendingUpdates() { return pendingUpdates; }
+        public void setPendingUpdates(int pendingUpdates) { this.pendingUpdates = pendingUpdates; }
+    }
+}
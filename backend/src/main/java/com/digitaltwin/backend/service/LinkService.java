@@ -1,15 +1,21 @@
 package com.digitaltwin.backend.service;
 
+import com.digitaltwin.backend.event.GraphChangeEvent;
 import com.digitaltwin.backend.model.Link;
-import com.digitaltwin.backend.model.ObjectEntity;
 import com.digitaltwin.backend.repository.LinkRepository;
-import com.digitaltwin.backend.repository.ObjectRepository;
+import com.digitaltwin.backend.repository.ReactiveLinkRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.neo4j.core.Neo4jClient;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,11 +24,29 @@ public class LinkService {
 
     private static final Logger logger = LoggerFactory.getLogger(LinkService.class);
 
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String DELETE_LINK =
+            "MATCH (s:Object)-[r:LINKS_TO {id: $id}]->(t:Object) " +
+            "WITH r, s.id AS sourceId, t.id AS targetId, s.type AS sourceType, r.type AS linkType, t.type AS targetType " +
+            "DELETE r " +
+            "CREATE (:Tombstone {entityId: $id, entityType: 'LINK', changeSeq: $changeSeq}) " +
+            "RETURN sourceId, targetId, sourceType, linkType, targetType";
+
     @Autowired
     private LinkRepository linkRepository;
 
     @Autowired
-    private ObjectRepository objectRepository;
+    private ReactiveLinkRepository reactiveLinkRepository;
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ChangeSequenceService changeSequenceService;
 
     public List<Link> getAllLinks() {
         return linkRepository.findAllLinks();
@@ -36,6 +60,10 @@ public class LinkService {
         return linkRepository.findLinksByType(type);
     }
 
+    public Flux<Link> streamLinksByType(String type) {
+        return reactiveLinkRepository.streamByType(type);
+    }
+
     public List<Link> getLinksBySourceId(String sourceId) {
         return linkRepository.findLinksBySourceId(sourceId);
     }
@@ -47,33 +75,44 @@ public class LinkService {
     public Link createLink(String type, String sourceId, String targetId, java.util.Map<String, Object> properties) {
         logger.info("Creating link with type: {}, sourceId: {}, targetId: {}, properties: {}", type, sourceId, targetId, properties);
 
-        Optional<ObjectEntity> source = objectRepository.findById(sourceId);
-        Optional<ObjectEntity> target = objectRepository.findById(targetId);
+        String propertiesJson;
+        try {
+            propertiesJson = properties == null ? null : objectMapper.writeValueAsString(properties);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize link properties", e);
+        }
 
-        if (source.isEmpty() || target.isEmpty()) {
+        // Both endpoints are matched on their indexed business id in the same statement
+        Link link = changeSequenceService.stamp(changeSeq -> linkRepository.createLink(
+                UUID.randomUUID().toString(), type, sourceId, targetId, propertiesJson, changeSeq));
+        if (link == null) {
             throw new IllegalArgumentException("Source or target object not found");
         }
 
-        Link link = new Link();
-        link.setId(UUID.randomUUID().toString());
-        link.setType(type);
-        link.setSource(source.get());
-        link.setTarget(target.get());
-        link.setProperties(properties);
-
-        // Save the relationship entity directly
-        return linkRepository.save(link);
+        eventPublisher.publishEvent(new GraphChangeEvent()
+                .linkCreated(link.getSource() != null ? link.getSource().getType() : null, type,
+                        link.getTarget() != null ? link.getTarget().getType() : null, link.getId())
+                .linkEndpoints(sourceId, targetId));
+        return link;
     }
 
     public Link saveLink(Link link) {
-        return linkRepository.save(link);
+        if (link.getId() == null) {
+            link.setId(UUID.randomUUID().toString());
+        }
+        return changeSequenceService.stamp(changeSeq -> {
+            link.setChangeSeq(changeSeq);
+            return linkRepository.save(link);
+        });
     }
 
     public void deleteLink(String id) {
-        // Find the link by its elementId and delete it
-        Link link = linkRepository.findLinkById(id);
-        if (link != null) {
-            linkRepository.delete(link);
-        }
+        changeSequenceService.stamp(changeSeq -> neo4jClient.query(DELETE_LINK)
+                .bindAll(Map.of("id", id, "changeSeq", changeSeq))
+                .fetch().one()).ifPresent(deleted ->
+                eventPublisher.publishEvent(new GraphChangeEvent().linkDeleted(
+                        (String) deleted.get("sourceType"), (String) deleted.get("linkType"),
+                        (String) deleted.get("targetType"), id)
+                        .linkEndpoints((String) deleted.get("sourceId"), (String) deleted.get("targetId"))));
     }
 }
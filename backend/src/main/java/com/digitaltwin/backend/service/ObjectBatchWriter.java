@@ -0,0 +1,438 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.dto.DeadLetter;
+import com.digitaltwin.backend.event.GraphChangeEvent;
+import com.digitaltwin.backend.model.ObjectEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.neo4j.driver.exceptions.RetryableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Creates new objects in chunks, one {@code UNWIND} statement and transaction
+ * per chunk instead of one round trip per object. A failed chunk is retried
+ * record by record so a single bad record only loses itself.
+ *
+ * Transient failures (deadlocks, leader switches, lost connections) are
+ * retried with exponential backoff and jitter. Records that still fail are
+ * written to the {@link DeadLetterStore} with their cause so they can be
+ * replayed later instead of re-running the whole load.
+ *
+ * Types with a natural-key spec ({@code ingestion.natural-keys.<type>=prop1,prop2})
+ * are upserted instead: records are merged on (type, naturalKey) and written
+ * only when the hash of their properties differs from the stored one.
+ */
+@Service
+public class ObjectBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObjectBatchWriter.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // MERGE so a retry of a chunk that committed before its transient error finds its objects
+    // and leaves them as they are, instead of failing on the id constraint
+    private static final String CREATE_OBJECTS =
+            "UNWIND $rows AS row " +
+            "MERGE (o:Object {id: row.id}) " +
+            "ON CREATE SET o.type = row.type, o.propertiesJson = row.propertiesJson, o.searchText = row.searchText, " +
+            "  o.createdSeq = row.changeSeq, o.changeSeq = row.changeSeq";
+
+    private static final String EXISTING_IDS = "MATCH (o:Object) WHERE o.id IN $ids RETURN o.id";
+
+    // Only records whose content hash differs are written; unchanged ones match and return nothing
+    private static final String UPSERT_OBJECTS =
+            "UNWIND $rows AS row " +
+            "MERGE (o:Object {type: row.type, naturalKey: row.naturalKey}) " +
+            "ON CREATE SET o.id = row.id, o.createdSeq = row.changeSeq " +
+            "WITH o, row WHERE o.contentHash IS NULL OR o.contentHash <> row.contentHash " +
+            "SET o.propertiesJson = row.propertiesJson, o.searchText = row.searchText, o.contentHash = row.contentHash, " +
+            "  o.changeSeq = row.changeSeq, " +
+            "  o.version = coalesce(o.version, 0) + 1 " +
+            "RETURN row.index AS index, o.id AS id, o.createdSeq AS createdSeq, o.changeSeq AS changeSeq";
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ChangeSequenceService changeSequenceService;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private DeadLetterStore deadLetterStore;
+
+    @Value("${ingestion.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${ingestion.retry.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${ingestion.retry.initial-backoff-ms:100}")
+    private long initialBackoffMs;
+
+    @Value("${ingestion.retry.max-backoff-ms:5000}")
+    private long maxBackoffMs;
+
+    // Error messages kept per write; further failures are only counted
+    @Value("${ingestion.max-errors:100}")
+    private int maxErrors;
+
+    private final Map<String, List<String>> naturalKeySpecs = new ConcurrentHashMap<>();
+
+    public int getChunkSize() {
+        return Math.max(chunkSize, 1);
+    }
+
+    public WriteResult write(List<ObjectEntity> objects) {
+        return write(objects, null);
+    }
+
+    /**
+     * Writes the objects, handing each written one to {@code onWritten} instead of
+     * collecting it in the result, so callers that only need ids or counts do not
+     * keep every entity reachable until the write returns.
+     */
+    public WriteResult write(List<ObjectEntity> objects, Consumer<ObjectEntity> onWritten) {
+        WriteResult result = new WriteResult(maxErrors, onWritten);
+
+        // Keep each chunk homogeneous so a retried chunk never repeats a committed write
+        List<ObjectEntity> creates = new ArrayList<>();
+        List<ObjectEntity> upserts = new ArrayList<>();
+        for (ObjectEntity object : objects) {
+            (naturalKeyProperties(object.getType()).isEmpty() ? creates : upserts).add(object);
+        }
+        writeChunks(creates, result);
+        writeChunks(upserts, result);
+        return result;
+    }
+
+    /**
+     * Drops objects whose id already exists. Resumable sources derive ids from the
+     * record position, so this filters out a chunk's records that were committed
+     * before the crash that interrupted them.
+     */
+    public List<ObjectEntity> withoutExisting(List<ObjectEntity> objects) {
+        if (objects.isEmpty()) {
+            return objects;
+        }
+        Set<String> existing = new HashSet<>(neo4jClient.query(EXISTING_IDS)
+                .bind(objects.stream().map(ObjectEntity::getId).toList()).to("ids")
+                .fetchAs(String.class).all());
+        return objects.stream().filter(object -> !existing.contains(object.getId())).toList();
+    }
+
+    /**
+     * Property names forming the natural key of a type, from {@code ingestion.natural-keys.<type>}.
+     */
+    public List<String> naturalKeyProperties(String type) {
+        if (type == null) {
+            return List.of();
+        }
+        return naturalKeySpecs.computeIfAbsent(type, t -> Arrays.stream(
+                        environment.getProperty("ingestion.natural-keys." + t, "").split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList());
+    }
+
+    private void writeChunks(List<ObjectEntity> objects, WriteResult result) {
+        int size = getChunkSize();
+
+        for (int from = 0; from < objects.size(); from += size) {
+            List<ObjectEntity> chunk = objects.subList(from, Math.min(from + size, objects.size()));
+            long start = System.nanoTime();
+            int failed = 0;
+            int unchanged = 0;
+
+            try {
+                unchanged = withRetry(() -> writeChunk(chunk, result));
+            } catch (RuntimeException e) {
+                logger.warn("Chunk {} of {} records failed, retrying records individually: {}",
+                        result.chunks.size(), chunk.size(), e.getMessage());
+                List<DeadLetter> deadLetters = new ArrayList<>();
+                for (ObjectEntity object : chunk) {
+                    try {
+                        unchanged += withRetry(() -> writeChunk(List.of(object), result));
+                    } catch (RuntimeException recordError) {
+                        failed++;
+                        String message = recordError.getMessage();
+                        result.addError("Failed to ingest record " + object.getId() + ": " + message);
+                        deadLetters.add(new DeadLetter(object.getId(), object.getType(), object.getPropertiesJson(),
+                                message, isTransient(recordError), isTransient(recordError) ? maxAttempts : 1,
+                                System.currentTimeMillis()));
+                    }
+                }
+                deadLetterStore.append(deadLetters);
+            }
+            result.unchangedRecords += unchanged;
+            result.failedRecords += failed;
+
+            ChunkReport report = new ChunkReport(result.chunks.size(), chunk.size(), failed, unchanged,
+                    (System.nanoTime() - start) / 1_000_000);
+            result.chunks.add(report);
+            logger.info("Wrote chunk {} ({} records, {} unchanged, {} failed) in {} ms, {} records/s",
+                    report.getIndex(), report.getRecords(), report.getUnchangedRecords(), report.getFailedRecords(),
+                    report.getDurationMs(), Math.round(report.getRecordsPerSecond()));
+        }
+    }
+
+    /**
+     * Runs a write, retrying transient failures with exponential backoff and full jitter.
+     * Other failures are rethrown at once.
+     */
+    private <T> T withRetry(Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write.get();
+            } catch (RuntimeException e) {
+                if (attempt >= Math.max(maxAttempts, 1) || !isTransient(e)) {
+                    throw e;
+                }
+                long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+                long sleep = ThreadLocalRandom.current().nextLong(backoff + 1);
+                logger.debug("Transient write failure (attempt {} of {}), retrying in {} ms: {}",
+                        attempt, maxAttempts, sleep, e.getMessage());
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetryableException || cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes one chunk in a single statement, recording the written objects in {@code result}.
+     * Returns the number of records skipped because their content was unchanged.
+     */
+    private int writeChunk(List<ObjectEntity> chunk, WriteResult result) {
+        if (!naturalKeyProperties(chunk.get(0).getType()).isEmpty()) {
+            return upsertChunk(chunk, result);
+        }
+
+        changeSequenceService.stampBlock(chunk.size(), firstSeq -> {
+            List<Map<String, Object>> rows = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                ObjectEntity object = chunk.get(i);
+                object.setChangeSeq(firstSeq + i);
+                object.setCreatedSeq(firstSeq + i);
+
+                Map<String, Object> row = new HashMap<>();
+                row.put("id", object.getId());
+                row.put("type", object.getType());
+                row.put("propertiesJson", object.getPropertiesJson());
+                row.put("searchText", object.getSearchText());
+                row.put("changeSeq", object.getChangeSeq());
+                rows.add(row);
+            }
+            return neo4jClient.query(CREATE_OBJECTS).bind(rows).to("rows").run();
+        });
+        chunk.forEach(result::recordWritten);
+
+        GraphChangeEvent event = new GraphChangeEvent();
+        chunk.forEach(object -> event.objectCreated(object.getType(), object.getId()));
+        eventPublisher.publishEvent(event);
+        return 0;
+    }
+
+    private int upsertChunk(List<ObjectEntity> chunk, WriteResult result) {
+        for (ObjectEntity object : chunk) {
+            if (object.getContentHash() == null) {
+                encode(object, object.getProperties());
+            }
+        }
+
+        Collection<Map<String, Object>> changed = changeSequenceService.stampBlock(chunk.size(), firstSeq -> {
+            List<Map<String, Object>> rows = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                ObjectEntity object = chunk.get(i);
+                Map<String, Object> row = new HashMap<>();
+                row.put("index", i);
+                row.put("id", object.getId());
+                row.put("type", object.getType());
+                row.put("naturalKey", object.getNaturalKey());
+                row.put("contentHash", object.getContentHash());
+                row.put("propertiesJson", object.getPropertiesJson());
+                row.put("searchText", object.getSearchText());
+                row.put("changeSeq", firstSeq + i);
+                rows.add(row);
+            }
+            return neo4jClient.query(UPSERT_OBJECTS).bind(rows).to("rows").fetch().all();
+        });
+
+        GraphChangeEvent event = new GraphChangeEvent();
+        for (Map<String, Object> row : changed) {
+            ObjectEntity object = chunk.get(((Number) row.get("index")).intValue());
+            object.setId((String) row.get("id"));
+            object.setChangeSeq((Long) row.get("changeSeq"));
+            object.setCreatedSeq((Long) row.get("createdSeq"));
+            result.recordWritten(object);
+            if (object.getCreatedSeq().equals(object.getChangeSeq())) {
+                event.objectCreated(object.getType(), object.getId());
+            } else {
+                event.objectUpdated(object.getId());
+            }
+        }
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(event);
+        }
+        return chunk.size() - changed.size();
+    }
+
+    /**
+     * Computes the natural key and content hash of an object whose type has a natural-key spec.
+     * The writer does this itself when needed; callers that already hold the parsed properties
+     * can do it up front and save the writer from parsing them again.
+     */
+    public void encode(ObjectEntity object, Map<String, Object> properties) {
+        List<String> keyProperties = naturalKeyProperties(object.getType());
+        if (keyProperties.isEmpty()) {
+            return;
+        }
+        object.setNaturalKey(naturalKey(properties, keyProperties));
+        object.setContentHash(contentHash(object.getPropertiesJson()));
+    }
+
+    /**
+     * Hash of an object's canonical properties JSON, stored as {@code contentHash} to skip unchanged writes.
+     */
+    public static String contentHash(String propertiesJson) {
+        String json = propertiesJson != null ? propertiesJson : "null";
+        return HexFormat.of().formatHex(sha256().digest(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String naturalKey(Map<String, Object> properties, List<String> keyProperties) {
+        List<Object> values = new ArrayList<>(keyProperties.size());
+        for (String name : keyProperties) {
+            Object value = properties.get(name);
+            if (value == null) {
+                throw new IllegalArgumentException("Record is missing natural key property '" + name + "'");
+            }
+            values.add(value);
+        }
+        return values.size() == 1 ? String.valueOf(values.get(0)) : toJson(values);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize natural key", e);
+        }
+    }
+
+    public static class WriteResult {
+        private final List<ObjectEntity> written = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private final List<ChunkReport> chunks = new ArrayList<>();
+        private final int maxErrors;
+        private final Consumer<ObjectEntity> onWritten;
+        private int writtenRecords;
+        private int unchangedRecords;
+        private int failedRecords;
+
+        WriteResult(int maxErrors, Consumer<ObjectEntity> onWritten) {
+            this.maxErrors = maxErrors;
+            this.onWritten = onWritten;
+        }
+
+        void recordWritten(ObjectEntity object) {
+            writtenRecords++;
+            if (onWritten != null) {
+                onWritten.accept(object);
+            } else {
+                written.add(object);
+            }
+        }
+
+        void addError(String error) {
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            }
+        }
+
+        // Empty when the objects were handed to a callback instead
+        public List<ObjectEntity> getWritten() { return written; }
+        public int getWrittenRecords() { return writtenRecords; }
+        public int getUnchangedRecords() { return unchangedRecords; }
+        public int getFailedRecords() { return failedRecords; }
+        // At most ingestion.max-errors messages; getFailedRecords() has the full count
+        public List<String> getErrors() { return errors; }
+        public List<ChunkReport> getChunks() { return chunks; }
+    }
+
+    public static class ChunkReport {
+        private final int index;
+        private final int records;
+        private final int failedRecords;
+        private final int unchangedRecords;
+        private final long durationMs;
+
+        public ChunkReport(int index, int records, int failedRecords, int unchangedRecords, long durationMs) {
+            this.index = index;
+            this.records = records;
+            this.failedRecords = failedRecords;
+            this.unchangedRecords = unchangedRecords;
+            this.durationMs = durationMs;
+        }
+
+        public int getIndex() { return index; }
+        public int getRecords() { return records; }
+        public int getFailedRecords() { return failedRecords; }
+        public int getUnchangedRecords() { return unchangedRecords; }
+        public long getDurationMs() { return durationMs; }
+
+        public double getRecordsPerSecond() {
+            return records * 1000.0 / Math.max(durationMs, 1);
+        }
+    }
+}
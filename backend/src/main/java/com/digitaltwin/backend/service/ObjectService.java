@@ -1,21 +1,55 @@
 package com.digitaltwin.backend.service;
 
+import com.digitaltwin.backend.event.GraphChangeEvent;
 import com.digitaltwin.backend.model.ObjectEntity;
 import com.digitaltwin.backend.repository.ObjectRepository;
+import com.digitaltwin.backend.repository.ReactiveObjectRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.neo4j.core.Neo4jClient;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class ObjectService {
 
+    // Returns what the deleted object contributed to the graph so listeners can apply deltas
+    private static final String DELETE_OBJECT =
+            "MATCH (o:Object {id: $id}) " +
+            "OPTIONAL MATCH (o)-[r:LINKS_TO]-(other:Object) " +
+            "WITH o, o.type AS type, collect(r.id) AS linkIds, collect(CASE WHEN r IS NULL THEN null WHEN startNode(r) = o " +
+            "  THEN [o.type, r.type, other.type] ELSE [other.type, r.type, o.type] END) AS edges " +
+            "DETACH DELETE o " +
+            "CREATE (:Tombstone {entityId: $id, entityType: 'OBJECT', changeSeq: $changeSeq}) " +
+            "FOREACH (linkId IN linkIds | CREATE (:Tombstone {entityId: linkId, entityType: 'LINK', changeSeq: $changeSeq})) " +
+            "RETURN type, edges";
+
+    private static final String FIND_EXISTING =
+            "MATCH (o:Object {id: $id}) " +
+            "RETURN o.type AS type, o.createdSeq AS createdSeq, o.naturalKey AS naturalKey, coalesce(o.version, 0) AS version, " +
+            "o.x AS x, o.y AS y, o.contentHash AS contentHash";
+
     @Autowired
     private ObjectRepository objectRepository;
 
+    @Autowired
+    private ReactiveObjectRepository reactiveObjectRepository;
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ChangeSequenceService changeSequenceService;
+
     public List<ObjectEntity> getAllObjects() {
         return objectRepository.findAllWithRelationships();
     }
@@ -32,6 +66,13 @@ public class ObjectService {
         return objectRepository.findByTypeWithRelationships(type);
     }
 
+    /**
+     * Streams objects of a type straight from the driver without materializing the result
+     */
+    public Flux<ObjectEntity> streamObjectsByType(String type) {
+        return reactiveObjectRepository.streamByType(type);
+    }
+
     public List<ObjectEntity> getConnectedObjects(String id, int depth) {
         return objectRepository.findConnectedObjects(id, depth);
     }
@@ -41,12 +82,59 @@ public class ObjectService {
     }
 
     public ObjectEntity saveObject(ObjectEntity object) {
+        Optional<Map<String, Object>> existing = object.getId() == null
+                ? Optional.empty()
+                : neo4jClient.query(FIND_EXISTING).bind(object.getId()).to("id").fetch().one();
+        String previousType = existing.map(row -> (String) row.get("type")).orElse(null);
+
         // Properties are now stored as JSON String, no need to flatten
-        return objectRepository.save(object);
+        ObjectEntity saved = changeSequenceService.stamp(changeSeq -> {
+            object.setChangeSeq(changeSeq);
+            object.setCreatedSeq(existing.isPresent() ? (Long) existing.get().get("createdSeq") : changeSeq);
+            // A direct save is a change too, so actions prepared against the old state retry
+            object.setVersion(existing.map(row -> (Long) row.get("version") + 1).orElse(0L));
+            if (object.getNaturalKey() == null) {
+                // Keep the object matched to its source record when edited through the API
+                existing.ifPresent(row -> object.setNaturalKey((String) row.get("naturalKey")));
+            }
+            // The save writes every mapped property, so carry over what API clients don't send:
+            // the layout position (a missing one gets the node re-placed) and the source content hash
+            existing.ifPresent(row -> {
+                if (object.getX() == null && object.getY() == null) {
+                    object.setX((Double) row.get("x"));
+                    object.setY((Double) row.get("y"));
+                }
+                if (object.getContentHash() == null) {
+                    object.setContentHash((String) row.get("contentHash"));
+                }
+            });
+            return objectRepository.save(object);
+        });
+
+        GraphChangeEvent event = new GraphChangeEvent();
+        if (existing.isEmpty()) {
+            event.objectCreated(saved.getType(), saved.getId());
+        } else {
+            event.objectUpdated(saved.getId());
+            if (!Objects.equals(previousType, saved.getType())) {
+                event.structural();
+            }
+        }
+        eventPublisher.publishEvent(event);
+        return saved;
     }
 
 
+    @SuppressWarnings("unchecked")
     public void deleteObject(String id) {
-        objectRepository.deleteById(id);
+        changeSequenceService.stamp(changeSeq -> neo4jClient.query(DELETE_OBJECT)
+                .bindAll(Map.of("id", id, "changeSeq", changeSeq))
+                .fetch().one()).ifPresent(deleted -> {
+            GraphChangeEvent event = new GraphChangeEvent().objectDeleted((String) deleted.get("type"), id);
+            for (List<String> edge : (List<List<String>>) deleted.get("edges")) {
+                event.linkDeleted(edge.get(0), edge.get(1), edge.get(2), null);
+            }
+            eventPublisher.publishEvent(event);
+        });
     }
 }
@@ -0,0 +1,209 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.event.GraphChangeEvent;
+import com.digitaltwin.backend.model.ObjectEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Links objects that share property values. Objects are blocked by
+ * {@code key=value} in an inverted index and only objects within the same
+ * block are compared, so the work grows with the block sizes rather than with
+ * the square of the batch. Blocks larger than the configured maximum (values
+ * like {@code true} or an empty string) carry no signal and are skipped.
+ */
+@Service
+public class RelationshipDiscoveryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelationshipDiscoveryService.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // MERGE keeps repeated discovery runs from duplicating links; only newly created ones are returned.
+    // Discovered links have no direction, so a link either way counts, and new ones run from the
+    // lower object id to the higher one whatever the input order
+    private static final String MERGE_LINKS =
+            "UNWIND $rows AS row " +
+            "MATCH (s:Object {id: row.sourceId}), (t:Object {id: row.targetId}) " +
+            "MERGE (s)-[r:LINKS_TO {type: row.type}]-(t) " +
+            "ON CREATE SET r.id = row.id, r.propertiesJson = row.propertiesJson, r.changeSeq = row.changeSeq " +
+            "WITH s, r, t, row WHERE r.id = row.id " +
+            "RETURN r.id AS id, s.id AS sourceId, s.type AS sourceType, t.id AS targetId, t.type AS targetType";
+
+    private record BlockKey(String scope, String key, String value) {}
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ChangeSequenceService changeSequenceService;
+
+    @Value("${ingestion.relationships.link-type:RELATED_TO}")
+    private String linkType;
+
+    // Property keys to block on; empty means every scalar property
+    @Value("${ingestion.relationships.keys:}")
+    private List<String> blockingKeys;
+
+    @Value("${ingestion.relationships.exclude-keys:}")
+    private List<String> excludedKeys;
+
+    @Value("${ingestion.relationships.min-shared-values:1}")
+    private int minSharedValues;
+
+    @Value("${ingestion.relationships.max-block-size:100}")
+    private int maxBlockSize;
+
+    @Value("${ingestion.relationships.cross-type:false}")
+    private boolean crossType;
+
+    @Value("${ingestion.relationships.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Discovers and persists links between the given objects.
+     *
+     * @return the number of links created
+     */
+    public int discover(List<ObjectEntity> objects) {
+        long start = System.currentTimeMillis();
+        Map<BlockKey, List<Integer>> blocks = buildBlocks(objects);
+
+        // Pair (i < j) packed into a long -> keys whose values the pair shares
+        Map<Long, List<String>> candidates = new HashMap<>();
+        int skippedBlocks = 0;
+        for (Map.Entry<BlockKey, List<Integer>> block : blocks.entrySet()) {
+            List<Integer> members = block.getValue();
+            if (members.size() < 2) {
+                continue;
+            }
+            if (members.size() > maxBlockSize) {
+                skippedBlocks++;
+                continue;
+            }
+            String key = block.getKey().key();
+            for (int a = 0; a < members.size(); a++) {
+                for (int b = a + 1; b < members.size(); b++) {
+                    long pair = ((long) members.get(a) << 32) | members.get(b);
+                    candidates.computeIfAbsent(pair, p -> new ArrayList<>(1)).add(key);
+                }
+            }
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        candidates.forEach((pair, sharedKeys) -> {
+            if (sharedKeys.size() >= minSharedValues) {
+                rows.add(toRow(objects.get((int) (pair >>> 32)), objects.get((int) (long) pair), sharedKeys));
+            }
+        });
+
+        int created = 0;
+        for (int from = 0; from < rows.size(); from += Math.max(batchSize, 1)) {
+            created += persist(rows.subList(from, Math.min(from + Math.max(batchSize, 1), rows.size())));
+        }
+
+        logger.info("Discovered {} candidate pairs in {} blocks ({} oversized skipped), created {} links in {} ms",
+                rows.size(), blocks.size(), skippedBlocks, created, System.currentTimeMillis() - start);
+        return created;
+    }
+
+    private Map<BlockKey, List<Integer>> buildBlocks(List<ObjectEntity> objects) {
+        Set<String> included = new HashSet<>(blockingKeys);
+        Set<String> excluded = new HashSet<>(excludedKeys);
+        Map<BlockKey, List<Integer>> blocks = new HashMap<>();
+
+        for (int i = 0; i < objects.size(); i++) {
+            ObjectEntity object = objects.get(i);
+            if (object.getId() == null) {
+                continue;
+            }
+            String scope = crossType ? null : object.getType();
+            // Properties are parsed once per object rather than once per comparison
+            for (Map.Entry<String, Object> property : object.getProperties().entrySet()) {
+                String key = property.getKey();
+                if ((!included.isEmpty() && !included.contains(key)) || excluded.contains(key)) {
+                    continue;
+                }
+                String value = normalize(property.getValue());
+                if (value != null) {
+                    blocks.computeIfAbsent(new BlockKey(scope, key, value), k -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+        return blocks;
+    }
+
+    private int persist(List<Map<String, Object>> batch) {
+        Collection<Map<String, Object>> created = changeSequenceService.stampBlock(batch.size(), firstSeq -> {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).put("changeSeq", firstSeq + i);
+            }
+            return neo4jClient.query(MERGE_LINKS).bind(batch).to("rows").fetch().all();
+        });
+
+        if (!created.isEmpty()) {
+            GraphChangeEvent event = new GraphChangeEvent();
+            for (Map<String, Object> link : created) {
+                event.linkCreated((String) link.get("sourceType"), linkType, (String) link.get("targetType"),
+                        (String) link.get("id"));
+                event.linkEndpoints((String) link.get("sourceId"), (String) link.get("targetId"));
+            }
+            eventPublisher.publishEvent(event);
+        }
+        return created.size();
+    }
+
+    private Map<String, Object> toRow(ObjectEntity a, ObjectEntity b, List<String> sharedKeys) {
+        boolean ordered = a.getId().compareTo(b.getId()) <= 0;
+        ObjectEntity source = ordered ? a : b;
+        ObjectEntity target = ordered ? b : a;
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("relationship_type", "common_properties");
+        properties.put("shared_keys", sharedKeys);
+
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", UUID.randomUUID().toString());
+        row.put("type", linkType);
+        row.put("sourceId", source.getId());
+        row.put("targetId", target.getId());
+        try {
+            row.put("propertiesJson", objectMapper.writeValueAsString(properties));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize link properties", e);
+        }
+        return row;
+    }
+
+    // Only scalar values identify anything; nested maps and lists are not blocked on
+    private static String normalize(Object value) {
+        if (value instanceof String s) {
+            String trimmed = s.trim();
+            return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        return null;
+    }
+}
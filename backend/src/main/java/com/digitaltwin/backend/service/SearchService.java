@@ -0,0 +1,184 @@
+package com.digitaltwin.backend.service;
+
+import com.digitaltwin.backend.dto.SearchHit;
+import com.digitaltwin.backend.model.ObjectEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over object types and property values, backed by the
+ * {@code object_text_search} Neo4j full-text index on each object's type and
+ * {@code searchText}. The index is maintained by Neo4j on every committed write,
+ * so results are always in sync with objects.
+ */
+@Service
+public class SearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+
+    public static final String INDEX_NAME = "object_text_search";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final Pattern LUCENE_SPECIAL = Pattern.compile("[+\\-!(){}\\[\\]^\"~*?:\\\\/&|]");
+
+    // Lucene reads these as operators unless they are lowercase
+    private static final Set<String> LUCENE_KEYWORDS = Set.of("AND", "OR", "NOT");
+
+    // Hits stream in score order, so the type filter and limit stop reading the index early
+    private static final String SEARCH =
+            "CALL db.index.fulltext.queryNodes($index, $query) YIELD node, score " +
+            "WHERE $types IS NULL OR node.type IN $types " +
+            "RETURN node.id AS id, node.type AS type, node.propertiesJson AS propertiesJson, " +
+            "node.x AS x, node.y AS y, score LIMIT $limit";
+
+    // Objects written before searchText existed, filled in at startup
+    private static final String MISSING_SEARCH_TEXT =
+            "MATCH (o:Object) WHERE o.searchText IS NULL AND o.propertiesJson IS NOT NULL " +
+            "RETURN o.id AS id, o.propertiesJson AS propertiesJson LIMIT $limit";
+
+    private static final String SET_SEARCH_TEXT =
+            "UNWIND $rows AS row MATCH (o:Object {id: row.id}) SET o.searchText = row.searchText";
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    @Autowired
+    private Neo4jClient neo4jClient;
+
+    @Value("${search.default-limit:20}")
+    private int defaultLimit;
+
+    @Value("${search.max-limit:1000}")
+    private int maxLimit;
+
+    public List<SearchHit> search(String text, List<String> types, Integer limit) {
+        List<String> terms = tokenize(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        int effectiveLimit = Math.min(limit != null && limit > 0 ? limit : defaultLimit, maxLimit);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("index", INDEX_NAME);
+        parameters.put("query", buildQuery(terms));
+        parameters.put("types", types == null || types.isEmpty() ? null : types);
+        parameters.put("limit", effectiveLimit);
+
+        List<SearchHit> hits = new ArrayList<>();
+        for (Map<String, Object> row : neo4jClient.query(SEARCH).bindAll(parameters).fetch().all()) {
+            ObjectEntity object = new ObjectEntity((String) row.get("id"), (String) row.get("type"),
+                    parseProperties((String) row.get("propertiesJson")));
+            object.setX(row.get("x") instanceof Number x ? x.doubleValue() : null);
+            object.setY(row.get("y") instanceof Number y ? y.doubleValue() : null);
+            hits.add(new SearchHit(object, ((Number) row.get("score")).doubleValue(), highlight(object, terms)));
+        }
+        return hits;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSearchText() {
+        try {
+            fillMissingSearchText();
+        } catch (Exception e) {
+            // Objects without search text are only missing from search results, so don't prevent startup
+            logger.warn("Failed to fill in search text: {}", e.getMessage());
+        }
+    }
+
+    private void fillMissingSearchText() {
+        long filled = 0;
+        while (true) {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Map<String, Object> row : neo4jClient.query(MISSING_SEARCH_TEXT)
+                    .bind(BACKFILL_BATCH_SIZE).to("limit").fetch().all()) {
+                rows.add(Map.of("id", row.get("id"),
+                        "searchText", ObjectEntity.searchText(parseProperties((String) row.get("propertiesJson")))));
+            }
+            if (rows.isEmpty()) {
+                break;
+            }
+            neo4jClient.query(SET_SEARCH_TEXT).bind(rows).to("rows").run();
+            filled += rows.size();
+        }
+        if (filled > 0) {
+            logger.info("Filled in search text for {} objects", filled);
+        }
+    }
+
+    /**
+     * Terms are OR-ed so partial matches still rank.
+     */
+    private static String buildQuery(List<String> terms) {
+        return terms.stream().map(SearchService::escape).collect(Collectors.joining(" "));
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(text.trim().split("\\s+"))
+                .filter(term -> !term.isBlank())
+                .collect(Collectors.toList());
+    }
+
+    private static String escape(String term) {
+        if (LUCENE_KEYWORDS.contains(term)) {
+            return term.toLowerCase(Locale.ROOT);
+        }
+        return LUCENE_SPECIAL.matcher(term).replaceAll("\\\\$0");
+    }
+
+    /**
+     * Wraps each query term found in a property value with {@code <em>} tags.
+     */
+    private static Map<String, String> highlight(ObjectEntity object, List<String> terms) {
+        Pattern pattern = Pattern.compile(terms.stream()
+                .map(term -> Pattern.quote(term.toLowerCase(Locale.ROOT)))
+                .collect(Collectors.joining("|")), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+        Map<String, String> highlights = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : object.getProperties().entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            String value = String.valueOf(entry.getValue());
+            Matcher matcher = pattern.matcher(value);
+            if (matcher.find()) {
+                highlights.put(entry.getKey(), matcher.replaceAll("<em>$0</em>"));
+            }
+        }
+        return highlights;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parseProperties(String propertiesJson) {
+        if (propertiesJson == null || propertiesJson.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            return objectMapper.readValue(propertiesJson, Map.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to parse properties JSON", e);
+        }
+    }
+}